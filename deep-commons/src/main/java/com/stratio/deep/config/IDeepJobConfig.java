@@ -18,9 +18,12 @@ package com.stratio.deep.config;
 
 import com.datastax.driver.core.Session;
 import com.stratio.deep.entity.Cell;
+import com.stratio.deep.filter.FieldFilter;
+import com.stratio.deep.filter.FilterOperator;
 import org.apache.cassandra.dht.IPartitioner;
 
 import java.io.Serializable;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -85,6 +88,61 @@ public interface IDeepJobConfig<T> extends Serializable {
      */
     public abstract IDeepJobConfig<T> filterByField(String filterColumnName, Serializable filterValue);
 
+    /**
+     * Adds a new typed predicate on the given column. Predicates are sent to Cassandra as part of the query where
+     * clause, using bound variables. The following predicates are supported:
+     * <ul>
+     * <li>ranges ({@link FilterOperator#GT}, {@link FilterOperator#GTE}, {@link FilterOperator#LT},
+     * {@link FilterOperator#LTE}) and equality on clustering columns, provided all the preceding clustering columns
+     * are restricted by equality;</li>
+     * <li>equality on partition key columns, provided the whole partition key is restricted,
+     * see {@link #filterByFieldIn(String, java.io.Serializable...)};</li>
+     * <li>equality on indexed columns.</li>
+     * </ul>
+     * Predicates require native protocol paging: configurations holding predicates fail to initialize if
+     * {@link #nativePaging(Boolean)} is disabled or the cluster only supports the version 1 of the native protocol.
+     * Null checks cannot be served by Cassandra, use {@link #rowFilterByField(String, FilterOperator,
+     * java.io.Serializable...)} instead.
+     *
+     * @param filterColumnName the name of the column (as known by the datastore) to filter on.
+     * @param operator the filter operator, {@link FilterOperator#IN} being a shortcut for
+     * {@link #filterByFieldIn(String, java.io.Serializable...)}.
+     * @param filterValue the value of the filter, an instance of the Java type mapped to the column type.
+     * @return this configuration object.
+     * @throws IllegalArgumentException if the operator is a null check.
+     */
+    public abstract IDeepJobConfig<T> filterByField(String filterColumnName, FilterOperator operator,
+                                                    Serializable filterValue);
+
+    /**
+     * Restricts the last component of the partition key to the given values. All the other components
+     * of the partition key must be restricted by equality, see
+     * {@link #filterByField(String, FilterOperator, java.io.Serializable)}.<br/>
+     * Each split only queries the partitions whose token it owns.
+     *
+     * @param filterColumnName the name of the last partition key column.
+     * @param filterValues the values of the column to read.
+     * @return this configuration object.
+     */
+    public abstract IDeepJobConfig<T> filterByFieldIn(String filterColumnName, Serializable... filterValues);
+
+    /**
+     * Adds a new predicate evaluated on the rows returned by Cassandra, for predicates Cassandra cannot serve
+     * (e.g. ranges on non indexed columns). Predicates are evaluated on the undecoded column values using the
+     * comparator of the column type, and rows not satisfying all of them are discarded before being transformed
+     * into elements of the RDD.<br/>
+     * The filtered column must be read: if input columns have been configured, it must be one of them or a
+     * primary key column. Collection columns can only be checked for nulls.
+     *
+     * @param filterColumnName the name of the column (as known by the datastore) to filter on.
+     * @param operator the filter operator.
+     * @param filterValues the values of the filter, instances of the Java type mapped to the column type: a single
+     *                     one unless the operator is {@link FilterOperator#IN} or a null check, which takes none.
+     * @return this configuration object.
+     */
+    public abstract IDeepJobConfig<T> rowFilterByField(String filterColumnName, FilterOperator operator,
+                                                       Serializable... filterValues);
+
     /**
      * Sets the number of rows to retrieve for each page of data fetched from Cassandra.<br/>
      * Defaults to 1000 rows.
@@ -94,6 +152,61 @@ public interface IDeepJobConfig<T> extends Serializable {
      */
     public abstract IDeepJobConfig<T> pageSize(int pageSize);
 
+    /**
+     * Sets the number of pages the record reader will request from Cassandra ahead of the page
+     * currently being consumed. Each reader buffers at most <i>prefetchDepth + 1</i> pages,
+     * so memory usage is bounded by <i>(prefetchDepth + 1) * pageSize</i> rows.<br/>
+     * Zero disables prefetching. Defaults to 1.
+     *
+     * @param prefetchDepth the number of pages to prefetch.
+     * @return this configuration object.
+     */
+    public abstract IDeepJobConfig<T> prefetchDepth(int prefetchDepth);
+
+    /**
+     * Whether or not to let the driver page through each token range using the native protocol paging state.
+     * When disabled, or when the cluster only supports the version 1 of the native protocol, pages are
+     * fetched issuing a new query restricted by the last read partition and clustering keys.<br/>
+     * Defaults to TRUE.
+     *
+     * @param nativePaging a boolean that tells this configuration object to use native protocol paging.
+     * @return this configuration object.
+     */
+    public abstract IDeepJobConfig<T> nativePaging(Boolean nativePaging);
+
+    /**
+     * Enables speculative reads: when a page query takes longer than the given percentile of the latencies
+     * recently observed for the same table, the same page is requested to the next replica of the token range
+     * and the first response wins.<br/>
+     * The percentile must be greater than 0 and lower than 100. Defaults to 0 (speculative reads disabled).
+     *
+     * @param percentile the latency percentile after which a page query is considered slow.
+     * @return this configuration object.
+     */
+    public abstract IDeepJobConfig<T> speculativeReadPercentile(double percentile);
+
+    /**
+     * Sets the number of sub-ranges each partition token range is split into in order to be scanned
+     * concurrently by the task computing the partition.
+     * The provided number must be a power of two, unless the cluster uses the Murmur3 or the Random partitioner.
+     * Defaults to 1 (the token range is scanned sequentially).
+     *
+     * @param scanConcurrency the number of sub-ranges to scan concurrently.
+     * @return this configuration object.
+     */
+    public abstract IDeepJobConfig<T> scanConcurrency(int scanConcurrency);
+
+    /**
+     * Whether or not rows of concurrently scanned sub-ranges should be returned in token order.
+     * When disabled, rows of the same sub-range are still returned in order, but rows of different
+     * sub-ranges are interleaved as soon as they are read.<br/>
+     * Defaults to FALSE.
+     *
+     * @param orderedScan a boolean that tells this configuration object to preserve the token order.
+     * @return this configuration object.
+     */
+    public abstract IDeepJobConfig<T> orderedScan(Boolean orderedScan);
+
 
     /* Getters */
 
@@ -207,7 +320,9 @@ public interface IDeepJobConfig<T> extends Serializable {
 
     /**
      * Sets the token range bisect factor.
-     * The provided number must be a power of two.
+     * The provided number must be a power of two, unless the cluster uses the Murmur3 or the Random partitioner:
+     * token ranges are then split into sub-ranges of equal width, in a number proportional to the share of the ring
+     * each range covers, so that the RDD has about <i>bisectFactor</i> times as many partitions as token ranges.
      * Defaults to 1.
      *
      * @param bisectFactor the bisect factor to use.
@@ -215,6 +330,62 @@ public interface IDeepJobConfig<T> extends Serializable {
      */
     public abstract IDeepJobConfig<T> bisectFactor(int bisectFactor);
 
+    /**
+     * Sets the approximate number of rows each Spark partition should read.<br/>
+     * Token ranges are then split according to the row counts estimated by their replicas, which are
+     * queried through Thrift on the configured rpc port, and contiguous ranges held by the same replicas are merged
+     * up to the split size. Cannot be combined with a bisect factor.<br/>
+     * Disabled by default: ranges are only split by the bisect factor.
+     *
+     * @param splitSize the number of rows per split.
+     * @return this configuration object.
+     */
+    public abstract IDeepJobConfig<T> splitSize(int splitSize);
+
+    /**
+     * Sets the approximate number of Spark partitions of the RDD.<br/>
+     * Token ranges held by the same replicas are grouped into partitions scanning them back to back, so that
+     * clusters using virtual nodes don't need a task per range. Ranges held by different replicas are never grouped,
+     * so there will be at least a partition per distinct replica set.<br/>
+     * Disabled by default: each token range is mapped to its own partition.
+     *
+     * @param partitionCount the number of partitions.
+     * @return this configuration object.
+     */
+    public abstract IDeepJobConfig<T> partitionCount(int partitionCount);
+
+    /**
+     * Whether or not the token ranges computed for this table should be cached, so that later RDDs reading the same
+     * table with the same split settings skip the ring discovery and split planning.<br/>
+     * Cached splits are checked against the schema version and tokens of every host of the cluster, and are
+     * computed again whenever they change.<br/>
+     * Defaults to FALSE.
+     *
+     * @param cacheSplits a boolean that tells this configuration object to cache the computed splits.
+     * @return this configuration object.
+     */
+    public abstract IDeepJobConfig<T> cacheSplits(Boolean cacheSplits);
+
+    /**
+     * Sets a local directory where cached splits are also persisted, so that they survive the driver JVM.
+     * Only used when splits are cached.
+     *
+     * @param splitCacheDirectory the path of the directory.
+     * @return this configuration object.
+     */
+    public abstract IDeepJobConfig<T> splitCacheDirectory(String splitCacheDirectory);
+
+    /**
+     * Sets the datacenter Deep should read from, typically the analytics datacenter of the cluster.<br/>
+     * Spark partitions only prefer the replicas of this datacenter, readers only fall back to replicas of this
+     * datacenter, and every connection ignores the hosts of other datacenters.<br/>
+     * Not set by default: all the datacenters of the cluster are used.
+     *
+     * @param datacenter the name of the datacenter.
+     * @return this configuration object.
+     */
+    public abstract IDeepJobConfig<T> datacenter(String datacenter);
+
     /**
      * Let's the user specify an alternative partitioner class. The default partitioner is
      * org.apache.cassandra.dht.Murmur3Partitioner.
@@ -336,6 +507,20 @@ public interface IDeepJobConfig<T> extends Serializable {
      */
     public Map<String, Serializable> getAdditionalFilters();
 
+    /**
+     * Returns the list of typed predicates specified by the user.
+     *
+     * @return the list of configured field filters.
+     */
+    public List<FieldFilter> getFieldFilters();
+
+    /**
+     * Returns the list of predicates evaluated on the rows returned by Cassandra.
+     *
+     * @return the list of configured row filters.
+     */
+    public List<FieldFilter> getRowFilters();
+
     /**
      * Returns the maximum number of rows that will be retrieved when fetching data pages from Cassandra.
      *
@@ -343,6 +528,39 @@ public interface IDeepJobConfig<T> extends Serializable {
      */
     public int getPageSize();
 
+    /**
+     * Returns the number of pages the record reader will request ahead of the one being consumed.
+     *
+     * @return the prefetch depth.
+     */
+    public int getPrefetchDepth();
+
+    /**
+     * Returns whether or not the record reader should use native protocol paging when supported by the cluster.
+     *
+     * @return true if this configuration object has been configured to use native protocol paging.
+     */
+    public Boolean isNativePaging();
+
+    /**
+     * Returns the latency percentile after which a page query is speculatively sent to another replica.
+     *
+     * @return the configured percentile, 0 if speculative reads are disabled.
+     */
+    public double getSpeculativeReadPercentile();
+
+    /**
+     * @return the number of sub-ranges each partition token range is split into and scanned concurrently.
+     */
+    public int getScanConcurrency();
+
+    /**
+     * Returns whether or not concurrently scanned sub-ranges are returned in token order.
+     *
+     * @return true if this configuration object has been configured to preserve the token order.
+     */
+    public Boolean isOrderedScan();
+
     /**
      * Returns whether this configuration config is suitable for writing out data to the datastore.
      *
@@ -354,4 +572,33 @@ public interface IDeepJobConfig<T> extends Serializable {
      * @return the configured bisect factor.
      */
     public int getBisectFactor();
+
+    /**
+     * @return the configured number of rows per split, {@link com.stratio.deep.utils.Constants#DEFAULT_SPLIT_SIZE}
+     * if splits are not sized.
+     */
+    public int getSplitSize();
+
+    /**
+     * @return the configured number of partitions,
+     * {@link com.stratio.deep.utils.Constants#DEFAULT_PARTITION_COUNT} if token ranges are not grouped.
+     */
+    public int getPartitionCount();
+
+    /**
+     * Returns whether or not the computed splits are cached.
+     *
+     * @return true if this configuration object has been configured to cache the computed splits.
+     */
+    public Boolean isCacheSplits();
+
+    /**
+     * @return the local directory where cached splits are persisted, null if they are only held in memory.
+     */
+    public String getSplitCacheDirectory();
+
+    /**
+     * @return the datacenter Deep reads from, null if all the datacenters of the cluster are used.
+     */
+    public String getDatacenter();
 }
@@ -21,7 +21,11 @@ import com.stratio.deep.annotations.DeepField;
 import com.stratio.deep.exception.DeepGenericException;
 import com.stratio.deep.exception.DeepInstantiationException;
 import org.apache.cassandra.db.marshal.AbstractType;
+import org.apache.cassandra.utils.ByteBufferUtil;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
@@ -43,10 +47,16 @@ public final class Cell implements Serializable {
     private String cellName;
 
     /**
-     * Cell value.
+     * Cell value. Lazily composed from {@link #rawCellValue} when the cell has been read from Cassandra.
      */
     private Object cellValue;
 
+    /**
+     * Cell value as read from Cassandra, null if this cell has been created from a composed value.
+     * Serialized by {@link #writeObject(java.io.ObjectOutputStream)} as long as the value has not been composed.
+     */
+    private transient ByteBuffer rawCellValue;
+
     /**
      * flag that tells if this cell is part of the partition key.
      * Defaults to FALSE.
@@ -74,6 +84,10 @@ public final class Cell implements Serializable {
 
     /**
      * Factory method, creates a new Cell from its value and metadata information<br/>
+     * The value is not composed until {@link #getCellValue()} is called, and is returned untouched by
+     * {@link #getDecomposedCellValue()}.<br/>
+     * The value is not validated either: values which are not valid for the marshaller of the cell are accepted, and
+     * reported by the first call to {@link #getCellValue()}, which throws the exception raised by the marshaller.
      *
      * @param metadata  the cell object carrying the metadata for this new cell
      * @param cellValue the cell value, provided as a ByteBuffer.
@@ -189,9 +203,7 @@ public final class Cell implements Serializable {
         this.isClusterKey = metadata.isClusterKey;
         this.isPartitionKey = metadata.isPartitionKey;
         this.cellValidator = metadata.cellValidator;
-        if (cellValue != null) {
-            this.cellValue = metadata.marshaller().compose(cellValue);
-        }
+        this.rawCellValue = cellValue;
     }
 
     /**
@@ -254,8 +266,11 @@ public final class Cell implements Serializable {
 
         Cell cell = (Cell) o;
 
+        Object value = getCellValue();
+        Object otherValue = cell.getCellValue();
+
         return cellName.equals(cell.cellName) &&
-                (cellValue != null ? cellValue.equals(cell.cellValue) : cell.cellValue != null) &&
+                (value != null ? value.equals(otherValue) : otherValue != null) &&
                 isClusterKey.equals(cell.isClusterKey) &&
                 isPartitionKey.equals(cell.isPartitionKey) &&
                 cellValidator.equals(cell.getCellValidator());
@@ -290,12 +305,25 @@ public final class Cell implements Serializable {
      * @return the composed cell value.
      */
     public Object getCellValue() {
+        if (cellValue == null && rawCellValue != null) {
+            cellValue = marshaller().compose(rawCellValue.duplicate());
+        }
+
         return cellValue;
     }
 
+    /**
+     * Returns whether this cell holds a value, without composing it.
+     *
+     * @return true if this cell holds a value, either composed or as read from Cassandra.
+     */
+    public boolean hasValue() {
+        return cellValue != null || rawCellValue != null;
+    }
+
     /**
      * Returns the cell value as a ByteBuffer, performs the conversion using the
-     * configured validator.
+     * configured validator unless the cell holds the value as read from Cassandra.
      * <p/>
      * If cell value is null we propagate an empty array, see CASSANDRA-5885 and CASSANDRA-6180.
      *
@@ -304,7 +332,9 @@ public final class Cell implements Serializable {
     @SuppressWarnings("unchecked")
     public ByteBuffer getDecomposedCellValue() {
 
-        if (this.cellValue != null) {
+        if (this.rawCellValue != null) {
+            return this.rawCellValue.duplicate();
+        } else if (this.cellValue != null) {
             return marshaller().decompose(this.cellValue);
         } else {
             /* if null we propagate an empty array, see CASSANDRA-5885 and CASSANDRA-6180 */
@@ -318,7 +348,8 @@ public final class Cell implements Serializable {
     @Override
     public int hashCode() {
         int result = cellName.hashCode();
-        result = 31 * result + (cellValue != null ? cellValue.hashCode() : 0);
+        Object value = getCellValue();
+        result = 31 * result + (value != null ? value.hashCode() : 0);
         result = 31 * result + isPartitionKey.hashCode();
         result = 31 * result + isClusterKey.hashCode();
         result = 31 * result + cellValidator.hashCode();
@@ -358,8 +389,35 @@ public final class Cell implements Serializable {
      */
     @Override
     public String toString() {
-        return "Cell{" + "cellName='" + cellName + '\'' + ", cellValue=" + (cellValue != null ? cellValue : "") + ", " +
+        Object value = getCellValue();
+        return "Cell{" + "cellName='" + cellName + '\'' + ", cellValue=" + (value != null ? value : "") + ", " +
                 "isPartitionKey="
                 + isPartitionKey + ", isClusterKey=" + isClusterKey + ", cellValidator='" + cellValidator + '\'' + '}';
     }
+
+    /**
+     * Serializes the value as read from Cassandra if it has not been composed yet.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+
+        if (cellValue == null && rawCellValue != null) {
+            byte[] bytes = ByteBufferUtil.getArray(rawCellValue);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else {
+            out.writeInt(-1);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        int length = in.readInt();
+        if (length >= 0) {
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            rawCellValue = ByteBuffer.wrap(bytes);
+        }
+    }
 }
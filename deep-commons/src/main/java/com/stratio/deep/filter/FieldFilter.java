@@ -0,0 +1,94 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.stratio.deep.filter;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A predicate on a single column, either pushed down to the underlying datastore as part of the query where clause
+ * or evaluated on the rows it returns. Values must be instances of the Java type mapped to the column type.
+ */
+public final class FieldFilter implements Serializable {
+
+    private static final long serialVersionUID = 5217869417239104635L;
+
+    private final String field;
+
+    private final FilterOperator operator;
+
+    private final List<Serializable> values;
+
+    /**
+     * Public constructor.
+     *
+     * @param field the name of the column (as known by the datastore) to filter on.
+     * @param operator the filter operator.
+     * @param values the values of the filter, a single one unless the operator is {@link FilterOperator#IN}
+     *               or a null check, which takes none.
+     */
+    public FieldFilter(String field, FilterOperator operator, Serializable... values) {
+        if (field == null || operator == null) {
+            throw new IllegalArgumentException("filter field and operator cannot be null");
+        }
+
+        int valueCount = values == null ? 0 : values.length;
+
+        if (operator.isNullCheck() ? valueCount != 0 :
+                valueCount == 0 || (operator != FilterOperator.IN && valueCount != 1)) {
+            throw new IllegalArgumentException("Wrong number of values for operator " + operator + " on field " +
+                    field);
+        }
+
+        this.field = field;
+        this.operator = operator;
+        this.values = valueCount == 0 ? Collections.<Serializable>emptyList() :
+                Collections.unmodifiableList(Arrays.asList(values.clone()));
+    }
+
+    /**
+     * @return the name of the filtered column.
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * @return the filter operator.
+     */
+    public FilterOperator getOperator() {
+        return operator;
+    }
+
+    /**
+     * @return the values of the filter.
+     */
+    public List<Serializable> getValues() {
+        return values;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "FieldFilter{" + field + " " + operator.toCql() + " " + values + "}";
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.stratio.deep.filter;
+
+/**
+ * Relational operators supported by {@link FieldFilter}s.
+ */
+public enum FilterOperator {
+    EQ("="), GT(">"), GTE(">="), LT("<"), LTE("<="), IN("IN"), IS_NULL("IS NULL"), IS_NOT_NULL("IS NOT NULL");
+
+    private final String cql;
+
+    private FilterOperator(String cql) {
+        this.cql = cql;
+    }
+
+    /**
+     * @return the CQL representation of this operator.
+     */
+    public String toCql() {
+        return cql;
+    }
+
+    /**
+     * @return true if this operator restricts a column to a range of values.
+     */
+    public boolean isRange() {
+        return this == GT || this == GTE || this == LT || this == LTE;
+    }
+
+    /**
+     * @return true if this operator checks whether a column has a value, in which case it takes no values.
+     */
+    public boolean isNullCheck() {
+        return this == IS_NULL || this == IS_NOT_NULL;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.stratio.deep.functions;
+
+import com.stratio.deep.entity.Cells;
+
+/**
+ * Abstract base type for serializable functions over {@link com.stratio.deep.entity.Cells} declaring the columns
+ * they read. Used to derive the projection pushed down to the data store when mapping a cell RDD.
+ *
+ * @param <U> the function return type.
+ */
+public abstract class AbstractCellsFunction<U> extends AbstractSerializableFunction<Cells, U> {
+
+    private static final long serialVersionUID = -6402471093583284530L;
+
+    /**
+     * Returns the names of the columns this function reads. Key columns are always fetched and need not be listed.
+     *
+     * @return the array of column names read by this function.
+     */
+    public abstract String[] inputColumns();
+}
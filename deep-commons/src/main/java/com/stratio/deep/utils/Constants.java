@@ -31,8 +31,19 @@ public final class Constants {
     public static final int DEFAULT_PAGE_SIZE = 1000;
     public static final int DEFAULT_MAX_PAGE_SIZE = 10000;
 
+    public static final int DEFAULT_PREFETCH_DEPTH = 1;
+    public static final int DEFAULT_MAX_PREFETCH_DEPTH = 16;
+
+    public static final double DEFAULT_SPECULATIVE_READ_PERCENTILE = 0;
+
+    public static final int DEFAULT_SCAN_CONCURRENCY = 1;
+
     public static final int DEFAULT_BISECT_FACTOR = 1;
 
+    public static final int DEFAULT_SPLIT_SIZE = -1;
+
+    public static final int DEFAULT_PARTITION_COUNT = -1;
+
     private Constants() {
     }
 
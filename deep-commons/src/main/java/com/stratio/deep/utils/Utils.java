@@ -30,6 +30,7 @@ import org.apache.commons.lang.StringUtils;
 import scala.Tuple2;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.net.InetAddress;
@@ -368,6 +369,8 @@ public final class Utils {
 
     /**
      * Splits columns names and values as required by Datastax java driver to generate an Insert query.
+     * Values are provided as byte buffers, so that values read from Cassandra are written back without being
+     * composed. Cells without value are mapped to null.
      *
      * @param tuple an object containing the key Cell(s) as the first element and all the other columns as the second element.
      * @return an object containing an array of column names as the first element and an array of column values as the second element.
@@ -383,19 +386,30 @@ public final class Utils {
             Cell cell = keys.getCellByIdx(k);
 
             names[k] = quote(cell.getCellName());
-            values[k] = cell.getCellValue();
+            values[k] = bindValue(cell);
         }
 
         for (int v = keys.size(); v < (keys.size() + columns.size()); v++) {
             Cell cell = columns.getCellByIdx(v - keys.size());
 
             names[v] = quote(cell.getCellName());
-            values[v] = cell.getCellValue();
+            values[v] = bindValue(cell);
         }
 
         return new Tuple2<>(names, values);
     }
 
+    /**
+     * Returns the value to bind to a write query for the given cell: its decomposed value, or null if the cell has
+     * no value.
+     *
+     * @param cell the cell to write.
+     * @return the value to bind.
+     */
+    public static ByteBuffer bindValue(Cell cell) {
+        return cell.hasValue() ? cell.getDecomposedCellValue() : null;
+    }
+
     /**
      * Resolves the setter name for the property whose name is 'propertyName' whose type is 'valueType'
      * in the entity bean whose class is 'entityClass'.
@@ -24,6 +24,10 @@ import org.apache.cassandra.db.marshal.*;
 import org.apache.log4j.Logger;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.InetAddress;
@@ -237,6 +241,33 @@ public class CellTest {
         assertTrue(nullCell.hashCode() != 0);
     }
 
+    @Test
+    public void testLazyCellDecoding() throws Exception {
+        ByteBuffer bb = UTF8Type.instance.decompose("Test string");
+        bb.position(1);
+        ByteBuffer slice = bb.slice();
+
+        Cell metadata = Cell.create("id", DataType.text(), false, true);
+        Cell c = Cell.create(metadata, slice);
+
+        ByteBuffer decomposed = c.getDecomposedCellValue();
+        assertEquals(decomposed, slice);
+        assertTrue(decomposed.array() == slice.array());
+        assertEquals(slice.remaining(), "est string".length());
+
+        assertEquals(c.getCellValue(), "est string");
+        assertEquals(c.getDecomposedCellValue(), slice);
+        assertEquals(c, Cell.create("id", "est string", false, true));
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        new ObjectOutputStream(bos).writeObject(Cell.create(metadata, slice));
+        Cell deserialized =
+                (Cell) new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray())).readObject();
+
+        assertEquals(deserialized.getDecomposedCellValue(), slice);
+        assertEquals(deserialized.getCellValue(), "est string");
+    }
+
     @Test
     public void testEquality() {
 
@@ -261,12 +292,21 @@ public class CellTest {
             // ok
             logger.info("Correctly catched excepcion: " + e);
         }
+    }
 
-        try {
-            UUID testTimeUUID = UUID.fromString("A5C78940-9260-11E3-BAA8-0800200C9A66");
-            Cell c13 = Cell.create("TimeUUIDType", testTimeUUID);
+    @Test
+    public void testInvalidRawCellValue() {
+        UUID testTimeUUID = UUID.fromString("A5C78940-9260-11E3-BAA8-0800200C9A66");
+        Cell c13 = Cell.create("TimeUUIDType", testTimeUUID);
+
+        /* raw values are not validated until they are composed */
+        Cell c = Cell.create(c13, Int32Type.instance.decompose(Integer.valueOf(456)));
 
-            Cell.create(c13, Int32Type.instance.decompose(Integer.valueOf(456)));
+        assertTrue(c.hasValue());
+        assertEquals(c.getDecomposedCellValue(), Int32Type.instance.decompose(Integer.valueOf(456)));
+
+        try {
+            c.getCellValue();
 
             fail();
         } catch (Exception e) {
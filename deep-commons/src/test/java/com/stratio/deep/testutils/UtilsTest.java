@@ -16,6 +16,7 @@
 
 package com.stratio.deep.testutils;
 
+import com.datastax.driver.core.DataType;
 import com.stratio.deep.entity.Cell;
 import com.stratio.deep.entity.Cells;
 import com.stratio.deep.entity.IDeepType;
@@ -24,13 +25,19 @@ import com.stratio.deep.exception.DeepIOException;
 import com.stratio.deep.testentity.CommonsTestEntity;
 import com.stratio.deep.utils.AnnotationUtils;
 import com.stratio.deep.utils.Utils;
+import org.apache.cassandra.db.marshal.*;
 import org.apache.cassandra.utils.Pair;
 import org.testng.annotations.Test;
 import scala.Tuple2;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 import static com.stratio.deep.utils.Utils.*;
@@ -262,14 +269,46 @@ public class UtilsTest {
         assertEquals(names[6], "\"response_code\"");
         assertEquals(names[7], "\"download_time\"");
 
-        assertEquals(vals[0], "");
-        assertEquals(vals[1], testTimeUUID);
-        assertEquals(vals[2], 0);
-        assertEquals(vals[3], "");
-        assertEquals(vals[4], "");
-        assertEquals(vals[5], 0L);
-        assertEquals(vals[6], 200);
-        assertEquals(vals[7], testDate);
+        assertEquals(vals[0], UTF8Type.instance.decompose(""));
+        assertEquals(vals[1], TimeUUIDType.instance.decompose(testTimeUUID));
+        assertEquals(vals[2], Int32Type.instance.decompose(0));
+        assertEquals(vals[3], UTF8Type.instance.decompose(""));
+        assertEquals(vals[4], UTF8Type.instance.decompose(""));
+        assertEquals(vals[5], LongType.instance.decompose(0L));
+        assertEquals(vals[6], Int32Type.instance.decompose(200));
+        assertEquals(vals[7], TimestampType.instance.decompose(testDate));
+    }
+
+    @Test
+    public void testReadWriteRoundTripDoesNotDecodeValues() throws Exception {
+        /* the raw values are not valid for their types, composing any of them would fail */
+        ByteBuffer rawKey = ByteBuffer.wrap(new byte[]{1, 2, 3});
+        ByteBuffer rawValue = ByteBuffer.wrap(new byte[]{4, 5, 6});
+
+        Cells keys = new Cells(Cell.create(Cell.create("id", DataType.uuid(), true, false), rawKey));
+        Cells values = new Cells(Cell.create(Cell.create("response_code", DataType.cint(), false, false), rawValue),
+                Cell.create(Cell.create("url", DataType.text(), false, false), (ByteBuffer) null));
+
+        /* cells read by the executors are shipped to the writers */
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        new ObjectOutputStream(bos).writeObject(new Tuple2<>(keys, values));
+        Tuple2<Cells, Cells> shipped = (Tuple2<Cells, Cells>)
+                new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray())).readObject();
+
+        Object[] vals = prepareTuple4CqlDriver(shipped)._2();
+
+        assertEquals(vals[0], rawKey);
+        assertEquals(vals[1], rawValue);
+        assertNull(vals[2]);
+
+        assertEquals(bindValue(shipped._1().getCellByIdx(0)), rawKey);
+
+        try {
+            shipped._2().getCellByIdx(0).getCellValue();
+            fail();
+        } catch (RuntimeException e) {
+            // ok, the value had never been decoded
+        }
     }
 
     @Test
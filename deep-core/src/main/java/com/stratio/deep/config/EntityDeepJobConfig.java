@@ -21,6 +21,7 @@ import com.stratio.deep.entity.Cell;
 import com.stratio.deep.entity.IDeepType;
 import com.stratio.deep.exception.DeepGenericException;
 import com.stratio.deep.exception.DeepNoSuchFieldException;
+import com.stratio.deep.filter.FieldFilter;
 import com.stratio.deep.utils.AnnotationUtils;
 import com.stratio.deep.utils.Utils;
 import org.apache.commons.lang.StringUtils;
@@ -69,6 +70,30 @@ public final class EntityDeepJobConfig<T extends IDeepType> extends GenericDeepJ
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * When no input columns have been explicitly configured, the projection is derived from the
+     * {@link com.stratio.deep.annotations.DeepField} annotated properties of the entity class, since any other
+     * column would be discarded by {@link #setInstancePropertyFromDbName(IDeepType, String, Object)} anyway.
+     * Columns filtered by row filters are read as well.
+     */
+    @Override
+    public String[] getInputColumns() {
+        String[] inputColumns = super.getInputColumns();
+
+        if (inputColumns.length > 0 || mapDBNameToEntityName == null) {
+            return inputColumns;
+        }
+
+        Set<String> columns = new LinkedHashSet<>(mapDBNameToEntityName.keySet());
+        for (FieldFilter filter : getRowFilters()) {
+            columns.add(filter.getField());
+        }
+
+        return columns.toArray(new String[columns.size()]);
+    }
+
     /**
      * Public constructor. Constructs a job object with the specified entity class.
      *
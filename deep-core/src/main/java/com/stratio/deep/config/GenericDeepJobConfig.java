@@ -17,9 +17,15 @@
 package com.stratio.deep.config;
 
 import com.datastax.driver.core.*;
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
+import com.datastax.driver.core.policies.TokenAwarePolicy;
+import com.stratio.deep.cql.RangeUtils;
 import com.stratio.deep.entity.Cell;
 import com.stratio.deep.entity.Cells;
 import com.stratio.deep.exception.*;
+import com.stratio.deep.filter.FieldFilter;
+import com.stratio.deep.filter.FilterOperator;
 import com.stratio.deep.utils.Constants;
 import org.apache.cassandra.db.ConsistencyLevel;
 import org.apache.commons.io.IOUtils;
@@ -86,6 +92,16 @@ public abstract class GenericDeepJobConfig<T> implements IDeepJobConfig<T>, Auto
      */
     private Map<String, Serializable> additionalFilters = new TreeMap<>();
 
+    /**
+     * typed predicates folded into the query where clause as bound variables.
+     */
+    private List<FieldFilter> fieldFilters = new ArrayList<>();
+
+    /**
+     * Predicates evaluated on the rows returned by Cassandra.
+     */
+    private List<FieldFilter> rowFilters = new ArrayList<>();
+
     /**
      * Defines a projection over the CF columns.
      */
@@ -123,10 +139,51 @@ public abstract class GenericDeepJobConfig<T> implements IDeepJobConfig<T>, Auto
 
     private int pageSize = Constants.DEFAULT_PAGE_SIZE;
 
+    private int prefetchDepth = Constants.DEFAULT_PREFETCH_DEPTH;
+
+    /**
+     * Enables/Disables native protocol paging when reading from Cassandra. Enabled by default.
+     */
+    private Boolean nativePaging = Boolean.TRUE;
+
+    /**
+     * Latency percentile after which a page query is speculatively sent to another replica. Disabled by default.
+     */
+    private double speculativeReadPercentile = Constants.DEFAULT_SPECULATIVE_READ_PERCENTILE;
+
+    private int scanConcurrency = Constants.DEFAULT_SCAN_CONCURRENCY;
+
+    /**
+     * Whether concurrently scanned sub-ranges are returned in token order. Disabled by default.
+     */
+    private Boolean orderedScan = Boolean.FALSE;
+
     protected Boolean isWriteConfig = Boolean.FALSE;
 
     private int bisectFactor = Constants.DEFAULT_BISECT_FACTOR;
 
+    /**
+     * Approximate number of rows per split, splits are not sized by default.
+     */
+    private int splitSize = Constants.DEFAULT_SPLIT_SIZE;
+
+    /**
+     * Approximate number of partitions, token ranges are not grouped by default.
+     */
+    private int partitionCount = Constants.DEFAULT_PARTITION_COUNT;
+
+    private Boolean cacheSplits = Boolean.FALSE;
+
+    /**
+     * Local directory where cached splits are persisted, they are only held in memory by default.
+     */
+    private String splitCacheDirectory;
+
+    /**
+     * Datacenter to read from, all the datacenters are used by default.
+     */
+    private String datacenter;
+
     /**
      * {@inheritDoc}
      */
@@ -142,13 +199,23 @@ public abstract class GenericDeepJobConfig<T> implements IDeepJobConfig<T>, Auto
     @Override
     public synchronized Session getSession() {
         if (session == null) {
-            Cluster cluster = Cluster.builder()
+            Cluster.Builder builder = Cluster.builder()
                     .withPort(this.cqlPort)
                     .addContactPoint(this.host)
-                    .withCredentials(this.username, this.password)
-                    .build();
+                    .withCredentials(this.username, this.password);
+
+            if (datacenter != null) {
+                builder.withLoadBalancingPolicy(new TokenAwarePolicy(new DCAwareRoundRobinPolicy(datacenter)));
+            }
+
+            Cluster cluster = builder.build();
 
-            session = cluster.connect(this.keyspace);
+            try {
+                session = cluster.connect(this.keyspace);
+            } catch (RuntimeException e) {
+                cluster.close();
+                throw e;
+            }
         }
 
         return session;
@@ -477,6 +544,51 @@ public abstract class GenericDeepJobConfig<T> implements IDeepJobConfig<T>, Auto
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDeepJobConfig<T> splitSize(int splitSize) {
+        this.splitSize = splitSize;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDeepJobConfig<T> partitionCount(int partitionCount) {
+        this.partitionCount = partitionCount;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDeepJobConfig<T> cacheSplits(Boolean cacheSplits) {
+        this.cacheSplits = cacheSplits;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDeepJobConfig<T> splitCacheDirectory(String splitCacheDirectory) {
+        this.splitCacheDirectory = splitCacheDirectory;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDeepJobConfig<T> datacenter(String datacenter) {
+        this.datacenter = datacenter;
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -542,15 +654,50 @@ public abstract class GenericDeepJobConfig<T> implements IDeepJobConfig<T>, Auto
             throw new IllegalArgumentException("pageSize cannot exceed " + Constants.DEFAULT_MAX_PAGE_SIZE);
         }
 
+        if (prefetchDepth < 0) {
+            throw new IllegalArgumentException("prefetchDepth cannot be negative");
+        }
+
+        if (prefetchDepth > Constants.DEFAULT_MAX_PREFETCH_DEPTH) {
+            throw new IllegalArgumentException("prefetchDepth cannot exceed " + Constants.DEFAULT_MAX_PREFETCH_DEPTH);
+        }
+
+        if (speculativeReadPercentile < 0 || speculativeReadPercentile >= 100) {
+            throw new IllegalArgumentException("speculativeReadPercentile should be between 0 and 100");
+        }
+
         validateConsistencyLevels();
+        validateDatacenter();
 
         TableMetadata tableMetadata = fetchTableMetadata();
 
         validateTableMetadata(tableMetadata);
         validateAdditionalFilters(tableMetadata);
+        validateFieldFilters(tableMetadata);
+        validateRowFilters(tableMetadata);
+
+        if (bisectFactor != Constants.DEFAULT_BISECT_FACTOR && !checkIsValidSplitFactor(bisectFactor)){
+            throw new IllegalArgumentException("Bisect factor should be greater than zero, " +
+                    "and a power of 2 for partitioners without numeric tokens");
+        }
+
+        if (scanConcurrency != Constants.DEFAULT_SCAN_CONCURRENCY && !checkIsValidSplitFactor(scanConcurrency)) {
+            throw new IllegalArgumentException("Scan concurrency should be greater than zero, " +
+                    "and a power of 2 for partitioners without numeric tokens");
+        }
+
+        if (splitSize != Constants.DEFAULT_SPLIT_SIZE) {
+            if (splitSize <= 0) {
+                throw new IllegalArgumentException("Split size should be greater than zero");
+            }
 
-        if (bisectFactor != Constants.DEFAULT_BISECT_FACTOR && !checkIsPowerOfTwo(bisectFactor)){
-            throw new IllegalArgumentException("Bisect factor should be greater than zero and a power of 2");
+            if (bisectFactor != Constants.DEFAULT_BISECT_FACTOR) {
+                throw new IllegalArgumentException("Split size and bisect factor cannot be combined");
+            }
+        }
+
+        if (partitionCount != Constants.DEFAULT_PARTITION_COUNT && partitionCount <= 0) {
+            throw new IllegalArgumentException("Partition count should be greater than zero");
         }
     }
 
@@ -615,6 +762,135 @@ public abstract class GenericDeepJobConfig<T> implements IDeepJobConfig<T>, Auto
         }
     }
 
+    private void validateFieldFilters(TableMetadata tableMetadata) {
+        if (fieldFilters.isEmpty()) {
+            return;
+        }
+
+        if (!nativePaging) {
+            throw new IllegalArgumentException("Field filters require native paging, which has been disabled by " +
+                    "the nativePaging setting: enable it or use row filters instead");
+        }
+
+        if (getSession().getCluster().getConfiguration().getProtocolOptions().getProtocolVersion() < 2) {
+            throw new IllegalArgumentException("Field filters require native paging (the nativePaging setting), " +
+                    "which is not supported by the version 1 native protocol of the cluster: use row filters instead");
+        }
+
+        List<String> partitionKey = new ArrayList<>();
+        List<String> clusteringColumns = new ArrayList<>();
+
+        for (ColumnMetadata column : tableMetadata.getPartitionKey()) {
+            partitionKey.add(column.getName());
+        }
+
+        for (ColumnMetadata column : tableMetadata.getClusteringColumns()) {
+            clusteringColumns.add(column.getName());
+        }
+
+        Set<String> filteredPartitionKey = new HashSet<>();
+        Set<String> equalClusteringColumns = new HashSet<>();
+
+        for (FieldFilter filter : fieldFilters) {
+            ColumnMetadata columnMetadata = tableMetadata.getColumn(filter.getField());
+
+            if (columnMetadata == null) {
+                throw new DeepNoSuchFieldException("No column with name " + filter.getField() + " has been found on " +
+                        "table " + this.keyspace + "." + this.columnFamily);
+            }
+
+            if (partitionKey.contains(columnMetadata.getName())) {
+                if (filter.getOperator() != FilterOperator.EQ && (filter.getOperator() != FilterOperator.IN ||
+                        !columnMetadata.getName().equals(partitionKey.get(partitionKey.size() - 1)))) {
+                    throw new IllegalArgumentException("Partition key column " + filter.getField() + " can only be " +
+                            "restricted by equality, or IN if it is the last component of the partition key");
+                }
+
+                filteredPartitionKey.add(columnMetadata.getName());
+            } else if (clusteringColumns.contains(columnMetadata.getName())) {
+                if (filter.getOperator() == FilterOperator.IN) {
+                    throw new IllegalArgumentException("Clustering column " + filter.getField() + " cannot be " +
+                            "restricted by IN");
+                }
+
+                if (filter.getOperator() == FilterOperator.EQ) {
+                    equalClusteringColumns.add(columnMetadata.getName());
+                }
+            } else {
+                if (filter.getOperator() != FilterOperator.EQ) {
+                    throw new IllegalArgumentException("Column " + filter.getField() + " is not part of the primary " +
+                            "key, it can only be restricted by equality");
+                }
+
+                if (columnMetadata.getIndex() == null) {
+                    throw new DeepIndexNotFoundException("No index has been found on column " + columnMetadata
+                            .getName() + " on table " + this.keyspace + "." + this.columnFamily);
+                }
+            }
+        }
+
+        if (!filteredPartitionKey.isEmpty() && filteredPartitionKey.size() != partitionKey.size()) {
+            throw new IllegalArgumentException("All the partition key columns should be restricted when filtering " +
+                    "on the partition key");
+        }
+
+        /* a clustering column can only be restricted if the preceding ones are restricted by equality */
+        for (FieldFilter filter : fieldFilters) {
+            int position = clusteringColumns.indexOf(tableMetadata.getColumn(filter.getField()).getName());
+
+            for (int i = 0; i < position; i++) {
+                if (!equalClusteringColumns.contains(clusteringColumns.get(i))) {
+                    throw new IllegalArgumentException("Clustering column " + filter.getField() + " cannot be " +
+                            "restricted, preceding column " + clusteringColumns.get(i) + " is not " +
+                            "restricted by equality");
+                }
+            }
+        }
+    }
+
+    private void validateDatacenter() {
+        if (datacenter == null) {
+            return;
+        }
+
+        Set<Host> clusterHosts;
+        try {
+            clusterHosts = getSession().getCluster().getMetadata().getAllHosts();
+        } catch (NoHostAvailableException e) {
+            throw new IllegalArgumentException("datacenter " + datacenter + " has no available hosts", e);
+        }
+
+        for (Host clusterHost : clusterHosts) {
+            if (datacenter.equals(clusterHost.getDatacenter())) {
+                return;
+            }
+        }
+
+        throw new IllegalArgumentException("datacenter " + datacenter + " has no hosts");
+    }
+
+    private void validateRowFilters(TableMetadata tableMetadata) {
+        for (FieldFilter filter : rowFilters) {
+            ColumnMetadata columnMetadata = tableMetadata.getColumn(filter.getField());
+
+            if (columnMetadata == null) {
+                throw new DeepNoSuchFieldException("No column with name " + filter.getField() + " has been found on " +
+                        "table " + this.keyspace + "." + this.columnFamily);
+            }
+
+            if (columnMetadata.getType().isCollection() && !filter.getOperator().isNullCheck()) {
+                throw new IllegalArgumentException("Collection column " + filter.getField() + " can only be " +
+                        "checked for nulls");
+            }
+
+            if (!ArrayUtils.isEmpty(inputColumns) && !ArrayUtils.contains(inputColumns, filter.getField()) &&
+                    !tableMetadata.getPrimaryKey().contains(columnMetadata)) {
+                throw new IllegalArgumentException("Column " + filter.getField() + " is filtered but not read, " +
+                        "add it to the input columns");
+            }
+        }
+    }
+
     private void validateConsistencyLevels() {
         if (readConsistencyLevel != null) {
             try {
@@ -641,6 +917,14 @@ public abstract class GenericDeepJobConfig<T> implements IDeepJobConfig<T>, Auto
         return (n > 0) && ((n & (n - 1)) == 0);
     }
 
+    /**
+     * Token ranges can be split in any number of sub-ranges by the partitioners using numeric tokens, any other
+     * partitioner bisects them.
+     */
+    private boolean checkIsValidSplitFactor(int n) {
+        return checkIsPowerOfTwo(n) || (n > 0 && RangeUtils.isExactlySplittable(RangeUtils.getPartitioner(this)));
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -675,6 +959,22 @@ public abstract class GenericDeepJobConfig<T> implements IDeepJobConfig<T>, Auto
         return Collections.unmodifiableMap(additionalFilters);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<FieldFilter> getFieldFilters() {
+        return Collections.unmodifiableList(fieldFilters);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<FieldFilter> getRowFilters() {
+        return Collections.unmodifiableList(rowFilters);
+    }
+
     @Override
     public int getPageSize() {
         checkInitialized();
@@ -691,12 +991,136 @@ public abstract class GenericDeepJobConfig<T> implements IDeepJobConfig<T>, Auto
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDeepJobConfig<T> filterByField(String filterColumnName, FilterOperator operator,
+                                           Serializable filterValue) {
+        if (operator == FilterOperator.IN) {
+            return filterByFieldIn(filterColumnName, filterValue);
+        }
+
+        if (operator.isNullCheck()) {
+            throw new IllegalArgumentException("Operator " + operator + " on column " + filterColumnName +
+                    " cannot be served by Cassandra, use rowFilterByField instead");
+        }
+
+        fieldFilters.add(new FieldFilter(filterColumnName, operator, filterValue));
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDeepJobConfig<T> filterByFieldIn(String filterColumnName, Serializable... filterValues) {
+        fieldFilters.add(new FieldFilter(filterColumnName, FilterOperator.IN, filterValues));
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDeepJobConfig<T> rowFilterByField(String filterColumnName, FilterOperator operator,
+                                              Serializable... filterValues) {
+        rowFilters.add(new FieldFilter(filterColumnName, operator, filterValues));
+        return this;
+    }
+
     @Override
     public IDeepJobConfig<T> pageSize(int pageSize) {
         this.pageSize = pageSize;
         return this;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPrefetchDepth() {
+        checkInitialized();
+        return this.prefetchDepth;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDeepJobConfig<T> prefetchDepth(int prefetchDepth) {
+        this.prefetchDepth = prefetchDepth;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Boolean isNativePaging() {
+        return nativePaging;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDeepJobConfig<T> nativePaging(Boolean nativePaging) {
+        this.nativePaging = nativePaging;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getSpeculativeReadPercentile() {
+        return speculativeReadPercentile;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDeepJobConfig<T> speculativeReadPercentile(double percentile) {
+        this.speculativeReadPercentile = percentile;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getScanConcurrency() {
+        return scanConcurrency;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDeepJobConfig<T> scanConcurrency(int scanConcurrency) {
+        this.scanConcurrency = scanConcurrency;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Boolean isOrderedScan() {
+        return orderedScan;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IDeepJobConfig<T> orderedScan(Boolean orderedScan) {
+        this.orderedScan = orderedScan;
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -753,4 +1177,44 @@ public abstract class GenericDeepJobConfig<T> implements IDeepJobConfig<T>, Auto
         return bisectFactor;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getSplitSize() {
+        return splitSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Boolean isCacheSplits() {
+        return cacheSplits;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getSplitCacheDirectory() {
+        return splitCacheDirectory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String getDatacenter() {
+        return datacenter;
+    }
+
 }
@@ -26,6 +26,7 @@ import com.stratio.deep.rdd.CassandraCellRDD;
 import com.stratio.deep.rdd.CassandraEntityRDD;
 import com.stratio.deep.rdd.CassandraJavaRDD;
 import com.stratio.deep.rdd.CassandraRDD;
+import com.stratio.deep.rdd.CassandraSampledRDD;
 import org.apache.spark.SparkContext;
 import org.apache.spark.api.java.JavaSparkContext;
 
@@ -114,6 +115,33 @@ public class DeepSparkContext extends JavaSparkContext {
         throw new DeepGenericException("not recognized config type");
     }
 
+    /**
+     * Builds a new RDD reading a deterministic, seeded sample of the token ranges of the configured table.
+     *
+     * @param config the deep configuration object to use to create the new RDD.
+     * @param fraction the expected fraction of token ranges to read, greater than 0 and not greater than 1.
+     * @param seed the seed of the token range selection.
+     * @return a new sampled RDD.
+     */
+    public <T> CassandraSampledRDD<T> cassandraSampledRDD(IDeepJobConfig<T> config, double fraction, long seed) {
+        return cassandraSampledRDD(config, fraction, seed, 0);
+    }
+
+    /**
+     * Builds a new RDD reading a deterministic, seeded sample of the token ranges of the configured table,
+     * reading at most <i>maxRowsPerRange</i> rows from each sampled range.
+     *
+     * @param config the deep configuration object to use to create the new RDD.
+     * @param fraction the expected fraction of token ranges to read, greater than 0 and not greater than 1.
+     * @param seed the seed of the token range selection.
+     * @param maxRowsPerRange the maximum number of rows read from each sampled range, zero meaning no limit.
+     * @return a new sampled RDD.
+     */
+    public <T> CassandraSampledRDD<T> cassandraSampledRDD(IDeepJobConfig<T> config, double fraction, long seed,
+                                                          int maxRowsPerRange) {
+        return ((CassandraRDD<T>) cassandraJavaRDD(config).rdd()).sampleRanges(fraction, seed, maxRowsPerRange);
+    }
+
     /**
      * Builds a new testentity based CassandraEntityRDD.
      *
@@ -17,9 +17,16 @@
 package com.stratio.deep.cql;
 
 import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.PreparedStatement;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
 import com.datastax.driver.core.policies.LoadBalancingPolicy;
 import com.datastax.driver.core.policies.Policies;
+import com.datastax.driver.core.policies.TokenAwarePolicy;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.stratio.deep.config.IDeepJobConfig;
 import com.stratio.deep.exception.DeepIOException;
 import org.apache.cassandra.utils.Pair;
@@ -30,6 +37,8 @@ import java.net.InetAddress;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Created by luca on 09/04/14.
@@ -37,6 +46,10 @@ import java.util.Map;
 class CassandraClientProvider {
     private static final transient Map<String, Session> clientsCache = Collections.synchronizedMap(new
             HashMap<String, Session>());
+    // maximum number of prepared statements kept by the JVM, some queries embedding literals such as their limit
+    private static final int MAX_CACHED_STATEMENTS = 1000;
+    private static final transient Cache<Pair<Session, String>, PreparedStatement> statementsCache =
+            CacheBuilder.newBuilder().maximumSize(MAX_CACHED_STATEMENTS).build();
     private static final Logger LOG = LoggerFactory.getLogger(CassandraClientProvider.class);
 
     static {
@@ -77,7 +90,8 @@ class CassandraClientProvider {
 
         synchronized (clientsCache) {
             final int port = conf.getCqlPort();
-            final String key = location + ":" + port + ":" + conf.getKeyspace() + ":" + balanced;
+            final String key = location + ":" + port + ":" + conf.getKeyspace() + ":" + balanced + ":" +
+                    conf.getDatacenter();
 
             if (clientsCache.containsKey(key)) {
                 LOG.trace("Found cached session at level 1 for key {{}}", key);
@@ -94,8 +108,8 @@ class CassandraClientProvider {
 
                 LOG.debug("No cached session found for key {{}}", key);
                 InetAddress locationInet = InetAddress.getByName(location);
-                LoadBalancingPolicy loadBalancingPolicy = balanced ? Policies.defaultLoadBalancingPolicy() : new
-                        LocalMachineLoadBalancingPolicy(locationInet);
+                LoadBalancingPolicy loadBalancingPolicy = balanced ? balancedPolicy(conf) : new
+                        LocalMachineLoadBalancingPolicy(locationInet, conf.getDatacenter());
 
                 Cluster cluster = Cluster.builder()
                         .withPort(port)
@@ -115,4 +129,39 @@ class CassandraClientProvider {
         }
 
     }
+
+    /**
+     * Returns the policy of balanced sessions: token aware, and restricted to the configured datacenter if any.
+     */
+    private static LoadBalancingPolicy balancedPolicy(IDeepJobConfig conf) {
+        if (conf.getDatacenter() == null) {
+            return Policies.defaultLoadBalancingPolicy();
+        }
+
+        return new TokenAwarePolicy(new DCAwareRoundRobinPolicy(conf.getDatacenter()));
+    }
+
+    /**
+     * Returns the prepared statement for the given query. The query is prepared against the provided session
+     * only the first time it is seen in this JVM, subsequent calls reuse the cached statement. At most
+     * {@link #MAX_CACHED_STATEMENTS} statements are cached, the least recently used ones being evicted first.<br/>
+     * Only the threads preparing the same query wait for each other, distinct queries are prepared concurrently.
+     *
+     * @param session the session the statement will be executed on.
+     * @param query   the CQL query to prepare.
+     * @return the prepared statement.
+     */
+    static PreparedStatement prepare(final Session session, final String query) {
+        try {
+            return statementsCache.get(Pair.create(session, query), new Callable<PreparedStatement>() {
+                @Override
+                public PreparedStatement call() {
+                    LOG.debug("Preparing statement {{}}", query);
+                    return session.prepare(query);
+                }
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw Throwables.propagate(e.getCause());
+        }
+    }
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.deep.cql;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.stratio.deep.config.IDeepJobConfig;
+import com.stratio.deep.exception.DeepIOException;
+import com.stratio.deep.exception.DeepIllegalAccessException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Record reader that splits its token range into sub-ranges and scans them concurrently,
+ * each one with its own {@link DeepRecordReader} running on a bounded thread pool.
+ * <p>
+ * Rows of the same sub-range are always returned in order. When <i>ordered</i> is true, the rows of
+ * each sub-range are returned only once all the rows of the previous sub-ranges have been returned,
+ * otherwise rows are returned as soon as they are read.
+ * </p>
+ * <p>
+ * Each sub-range buffers at most <i>pageSize</i> rows not consumed yet; scanners block when
+ * their buffer is full.
+ * </p>
+ */
+public class DeepConcurrentRecordReader implements IDeepRecordReader {
+    private static final Logger LOG = LoggerFactory.getLogger(DeepConcurrentRecordReader.class);
+
+    /* marks the end of the rows of a sub-range */
+    private static final DeepRow END_OF_RANGE = new DeepRow(null, null);
+
+    private final List<BlockingQueue<DeepRow>> queues = new ArrayList<>();
+    private final int[] pendingRanges;
+    private final ExecutorService executor;
+
+    private volatile Throwable failure;
+
+    private int currentQueue = 0;
+    private DeepRow nextRow;
+
+    /**
+     * public constructor.
+     *
+     * @param config      the deep configuration object.
+     * @param split       the token range on which the new reader will be based.
+     * @param concurrency the number of sub-ranges to scan concurrently: any positive number for the Murmur3 and
+     *                    Random partitioners, a power of two for any other partitioner, see
+     *                    {@link RangeUtils#splitRange(DeepTokenRange, org.apache.cassandra.dht.IPartitioner, int)}.
+     * @param ordered     whether to return the rows in token order.
+     */
+    public DeepConcurrentRecordReader(final IDeepJobConfig config, DeepTokenRange split, int concurrency,
+                                      boolean ordered) {
+        List<DeepTokenRange> subRanges = RangeUtils.splitRange(split, RangeUtils.getPartitioner(config), concurrency);
+
+        int queueCount = ordered ? subRanges.size() : 1;
+        pendingRanges = new int[queueCount];
+        for (int i = 0; i < queueCount; i++) {
+            queues.add(new ArrayBlockingQueue<DeepRow>(config.getPageSize()));
+            pendingRanges[i] = ordered ? 1 : subRanges.size();
+        }
+
+        executor = Executors.newFixedThreadPool(subRanges.size(),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("deep-scanner-%d").build());
+
+        for (int i = 0; i < subRanges.size(); i++) {
+            final DeepTokenRange subRange = subRanges.get(i);
+            final BlockingQueue<DeepRow> queue = queues.get(ordered ? i : 0);
+
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    scan(config, subRange, queue);
+                }
+            });
+        }
+    }
+
+    /**
+     * Reads all the rows of the given sub-range into the given queue, followed by an end marker.
+     */
+    private void scan(IDeepJobConfig config, DeepTokenRange subRange, BlockingQueue<DeepRow> queue) {
+        DeepRecordReader reader = null;
+
+        try {
+            reader = new DeepRecordReader(config, subRange);
+
+            while (reader.hasNext()) {
+                queue.put(reader.next());
+            }
+        } catch (InterruptedException e) {
+            LOG.debug("Scan of sub-range {} interrupted", subRange);
+            return;
+        } catch (Throwable t) {
+            LOG.error("Scan of sub-range " + subRange + " failed", t);
+            failure = t;
+        } finally {
+            if (reader != null) {
+                reader.close();
+            }
+        }
+
+        try {
+            queue.put(END_OF_RANGE);
+        } catch (InterruptedException e) {
+            LOG.debug("Scan of sub-range {} interrupted", subRange);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        while (nextRow == null && currentQueue < queues.size()) {
+            DeepRow row;
+
+            try {
+                row = queues.get(currentQueue).take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DeepIOException(e);
+            }
+
+            if (failure != null) {
+                throw new DeepIOException(failure);
+            }
+
+            if (row != END_OF_RANGE) {
+                nextRow = row;
+            } else if (--pendingRanges[currentQueue] == 0) {
+                currentQueue++;
+            }
+        }
+
+        return nextRow != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DeepRow next() {
+        if (!hasNext()) {
+            throw new DeepIllegalAccessException("DeepConcurrentRecordReader exhausted");
+        }
+
+        DeepRow row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    /**
+     * Stops the scanners still running.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
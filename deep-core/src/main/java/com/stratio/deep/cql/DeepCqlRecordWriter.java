@@ -220,9 +220,14 @@ public class DeepCqlRecordWriter implements AutoCloseable {
 
         Token range = partitioner.getToken(getPartitionKey(keys));
 
-        // add primary key columns to the bind variables
-        List<Object> allValues = new ArrayList<>(values.getCellValues());
-        allValues.addAll(keys.getCellValues());
+        // add primary key columns to the bind variables, values read from Cassandra are bound without decoding them
+        List<Object> allValues = new ArrayList<>(values.size() + keys.size());
+        for (Cell cell : values.getCells()) {
+            allValues.add(Utils.bindValue(cell));
+        }
+        for (Cell cell : keys.getCells()) {
+            allValues.add(Utils.bindValue(cell));
+        }
 
         // get the client for the given range, or create a new one
         RangeClient client = clients.get(range);
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.stratio.deep.cql;
+
+import com.stratio.deep.entity.Cell;
+import com.stratio.deep.exception.DeepIllegalAccessException;
+import com.stratio.deep.exception.DeepNoSuchFieldException;
+import com.stratio.deep.filter.FieldFilter;
+import com.stratio.deep.filter.FilterOperator;
+import org.apache.cassandra.db.marshal.AbstractType;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Record reader discarding the rows of another reader not satisfying a list of {@link FieldFilter}s.
+ * <p>
+ * Filters are compiled against the schema of the rows, decomposing their values once, and evaluated on the
+ * undecoded column values using the comparator of the column type. Rows are therefore never decoded unless they
+ * satisfy all the filters. A null column value only satisfies {@link FilterOperator#IS_NULL}.
+ * </p>
+ */
+public class DeepFilteringRecordReader implements IDeepRecordReader {
+    private final IDeepRecordReader reader;
+    private final List<FieldFilter> filters;
+
+    private DeepRowSchema schema;       // the schema the predicates have been compiled against
+    private Predicate[] predicates;
+    private DeepRow nextRow;
+
+    /**
+     * Public constructor.
+     *
+     * @param reader the reader whose rows will be filtered.
+     * @param filters the filters the returned rows must satisfy.
+     */
+    public DeepFilteringRecordReader(IDeepRecordReader reader, List<FieldFilter> filters) {
+        this.reader = reader;
+        this.filters = filters;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        while (nextRow == null && reader.hasNext()) {
+            DeepRow row = reader.next();
+
+            if (accept(row)) {
+                nextRow = row;
+            }
+        }
+
+        return nextRow != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DeepRow next() {
+        if (!hasNext()) {
+            throw new DeepIllegalAccessException("DeepFilteringRecordReader exhausted");
+        }
+
+        DeepRow row = nextRow;
+        nextRow = null;
+        return row;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        reader.close();
+    }
+
+    private boolean accept(DeepRow row) {
+        if (row.getSchema() != schema) {
+            compile(row.getSchema());
+        }
+
+        for (Predicate predicate : predicates) {
+            if (!predicate.accept(row.getValue(predicate.ordinal))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void compile(DeepRowSchema rowSchema) {
+        Predicate[] compiled = new Predicate[filters.size()];
+
+        for (int i = 0; i < compiled.length; i++) {
+            FieldFilter filter = filters.get(i);
+            int ordinal = rowSchema.indexOf(filter.getField());
+            Cell definition = ordinal >= 0 ? rowSchema.getCellDefinition(ordinal) : null;
+
+            if (definition == null) {
+                throw new DeepNoSuchFieldException("Column " + filter.getField() + " is filtered but has not " +
+                        "been read");
+            }
+
+            ByteBuffer[] values = new ByteBuffer[filter.getValues().size()];
+            for (int j = 0; j < values.length; j++) {
+                Serializable value = filter.getValues().get(j);
+                values[j] = Cell.create(definition, value).getDecomposedCellValue();
+            }
+
+            compiled[i] = new Predicate(ordinal, filter.getOperator(), definition.marshaller(), values);
+        }
+
+        predicates = compiled;
+        schema = rowSchema;
+    }
+
+    /**
+     * A filter compiled against a row schema.
+     */
+    private static class Predicate {
+        private final int ordinal;
+        private final FilterOperator operator;
+        private final AbstractType<?> comparator;
+        private final ByteBuffer[] values;
+
+        Predicate(int ordinal, FilterOperator operator, AbstractType<?> comparator, ByteBuffer[] values) {
+            this.ordinal = ordinal;
+            this.operator = operator;
+            this.comparator = comparator;
+            this.values = values;
+        }
+
+        boolean accept(ByteBuffer value) {
+            if (operator == FilterOperator.IS_NULL) {
+                return value == null;
+            }
+
+            if (value == null) {
+                return false;
+            }
+
+            switch (operator) {
+                case IS_NOT_NULL:
+                    return true;
+                case EQ:
+                    return comparator.compare(value, values[0]) == 0;
+                case GT:
+                    return comparator.compare(value, values[0]) > 0;
+                case GTE:
+                    return comparator.compare(value, values[0]) >= 0;
+                case LT:
+                    return comparator.compare(value, values[0]) < 0;
+                case LTE:
+                    return comparator.compare(value, values[0]) <= 0;
+                case IN:
+                    for (ByteBuffer candidate : values) {
+                        if (comparator.compare(value, candidate) == 0) {
+                            return true;
+                        }
+                    }
+                    return false;
+                default:
+                    throw new IllegalArgumentException("Unsupported filter operator " + operator);
+            }
+        }
+    }
+}
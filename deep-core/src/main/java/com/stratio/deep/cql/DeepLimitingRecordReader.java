@@ -0,0 +1,70 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.deep.cql;
+
+import com.stratio.deep.exception.DeepIllegalAccessException;
+
+/**
+ * Record reader returning at most a given number of the rows of another reader. The wrapped reader is not read
+ * past the limit.
+ */
+public class DeepLimitingRecordReader implements IDeepRecordReader {
+    private final IDeepRecordReader reader;
+    private final int limit;
+
+    private int count;
+
+    /**
+     * Public constructor.
+     *
+     * @param reader the reader whose rows will be returned.
+     * @param limit the maximum number of rows to return.
+     */
+    public DeepLimitingRecordReader(IDeepRecordReader reader, int limit) {
+        this.reader = reader;
+        this.limit = limit;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        return count < limit && reader.hasNext();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DeepRow next() {
+        if (!hasNext()) {
+            throw new DeepIllegalAccessException("DeepLimitingRecordReader exhausted");
+        }
+
+        count++;
+        return reader.next();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        reader.close();
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.stratio.deep.cql;
+
+import com.google.common.base.Function;
+import com.stratio.deep.exception.DeepIllegalAccessException;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Record reader scanning a list of token ranges back to back, in the given order. The reader of each range is
+ * created only once the rows of the previous ranges have been consumed, and closed as soon as it is exhausted.
+ */
+public class DeepMultiRangeRecordReader implements IDeepRecordReader {
+    private final Iterator<DeepTokenRange> ranges;
+    private final Function<DeepTokenRange, IDeepRecordReader> readerFactory;
+
+    private IDeepRecordReader current;
+
+    /**
+     * Public constructor.
+     *
+     * @param ranges the token ranges to scan.
+     * @param readerFactory the function creating the reader of each range.
+     */
+    public DeepMultiRangeRecordReader(List<DeepTokenRange> ranges,
+                                      Function<DeepTokenRange, IDeepRecordReader> readerFactory) {
+        this.ranges = ranges.iterator();
+        this.readerFactory = readerFactory;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        while (current == null || !current.hasNext()) {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+
+            if (!ranges.hasNext()) {
+                return false;
+            }
+
+            current = readerFactory.apply(ranges.next());
+        }
+
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DeepRow next() {
+        if (!hasNext()) {
+            throw new DeepIllegalAccessException("DeepMultiRangeRecordReader exhausted");
+        }
+
+        return current.next();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+}
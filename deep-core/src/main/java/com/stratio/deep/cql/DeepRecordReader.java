@@ -18,30 +18,43 @@ package com.stratio.deep.cql;
 
 import com.datastax.driver.core.*;
 import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.stratio.deep.config.GenericDeepJobConfig;
 import com.stratio.deep.config.IDeepJobConfig;
 import com.stratio.deep.entity.Cell;
 import com.stratio.deep.exception.DeepGenericException;
 import com.stratio.deep.exception.DeepIOException;
 import com.stratio.deep.exception.DeepIllegalAccessException;
+import com.stratio.deep.filter.FieldFilter;
 import com.stratio.deep.partition.impl.DeepPartitionLocationComparator;
 import com.stratio.deep.utils.Utils;
 import org.apache.cassandra.db.marshal.AbstractType;
 import org.apache.cassandra.db.marshal.CompositeType;
 import org.apache.cassandra.dht.IPartitioner;
-import org.apache.cassandra.utils.ByteBufferUtil;
 import org.apache.cassandra.utils.Pair;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Serializable;
 import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.stratio.deep.cql.CassandraClientProvider.getSession;
+import static com.stratio.deep.cql.CassandraClientProvider.prepare;
 import static com.stratio.deep.cql.CassandraClientProvider.trySessionForLocation;
 
 /**
@@ -50,10 +63,21 @@ import static com.stratio.deep.cql.CassandraClientProvider.trySessionForLocation
  *
  * @author Luca Rosellini <luca@strat.io>
  */
-public class DeepRecordReader {
+public class DeepRecordReader implements IDeepRecordReader {
     private static final Logger LOG = LoggerFactory.getLogger(DeepRecordReader.class);
 
-    private static final int DEFAULT_CQL_PAGE_LIMIT = 1000;
+    // tail index of a page requested right after a non empty one
+    private static final int NO_TAIL_INDEX = Integer.MAX_VALUE;
+
+    // row budget of a reader reading the whole token range
+    private static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    // maximum number of rows counted by a single COUNT query, the default limit of Cassandra 2.0 select statements
+    private static final int MAX_COUNT_PER_QUERY = 10000;
+
+    // bounds of the randomized exponential backoff between retries, in milliseconds
+    private static final long BASE_RETRY_BACKOFF = 100;
+    private static final long MAX_RETRY_BACKOFF = 2000;
 
     private DeepTokenRange split;
     private RowIterator rowIterator;
@@ -66,20 +90,54 @@ public class DeepRecordReader {
     // cluster keys -- column aliases
     private List<BoundColumn> clusterColumns = new ArrayList<>();
 
-    // cql query select columns
+    // key columns (partition keys followed by clustering keys) and projected value columns in the order they are selected
+    private DeepRowSchema schema;
+
+    // cql query select columns, keys first and then values
     private String columns;
 
     // the number of cql rows per page
     private int pageSize;
 
+    // the number of pages requested ahead of the one being consumed
+    private int prefetchDepth;
+
+    // the maximum number of cql rows to read
+    private final int limit;
+
+    // whether to page using the native protocol paging state instead of issuing a query per page
+    private boolean nativePaging;
+
     private IPartitioner partitioner;
 
     private AbstractType<?> keyValidator;
 
+    private AbstractType tokenValidator;
+
     private final IDeepJobConfig config;
 
     private Session session;
 
+    // replicas of the split ordered by locality, the first one being the location of the current session
+    private List<String> locations;
+
+    // latency percentile after which a page is speculatively requested to the next replica
+    private double speculativeReadPercentile;
+
+    // latencies of the page queries on this table, null if speculative reads are disabled
+    private LatencyTracker latencyTracker;
+
+    private Session speculativeSession;
+
+    // restrictions built from the configured field filters, their values are bound after the token range ones
+    private String filterClause = "";
+    private List<ByteBuffer> filterValues = Collections.emptyList();
+
+    // where clause and values selecting the partitions owned by the split, when the partition key is restricted
+    private String partitionLookupClause;
+    private List<ByteBuffer> partitionLookupValues;
+    private boolean emptyPartitionLookup;
+
     /**
      * public constructor. Takes a list of filters to pass to the underlying data stores.
      *
@@ -87,8 +145,21 @@ public class DeepRecordReader {
      * @param split the token range on which the new reader will be based.
      */
     public DeepRecordReader(IDeepJobConfig config, DeepTokenRange split) {
+        this(config, split, NO_LIMIT);
+    }
+
+    /**
+     * Creates a reader returning at most <i>limit</i> rows of the given split. The limit is pushed down to the
+     * queries and no page is requested ahead of the one being consumed.
+     *
+     * @param config the deep configuration object.
+     * @param split the token range on which the new reader will be based.
+     * @param limit the maximum number of rows to read.
+     */
+    public DeepRecordReader(IDeepJobConfig config, DeepTokenRange split, int limit) {
         this.config = config;
         this.split = split;
+        this.limit = limit;
         initialize();
     }
 
@@ -100,23 +171,38 @@ public class DeepRecordReader {
     private void initialize() {
         cfName = config.getTable();
 
-        if (!ArrayUtils.isEmpty(config.getInputColumns())) {
-            columns = StringUtils.join(config.getInputColumns(), ",");
-        }
-
-        pageSize = DEFAULT_CQL_PAGE_LIMIT;
+        pageSize = Math.min(config.getPageSize(), limit);
+        prefetchDepth = limit == NO_LIMIT ? config.getPrefetchDepth() : 0;
+        speculativeReadPercentile = config.getSpeculativeReadPercentile();
 
         partitioner = Utils.newTypeInstance(config.getPartitionerClassName(), IPartitioner.class);
+        tokenValidator = partitioner.getTokenValidator();
 
         try {
             session = createConnection();
+            nativePaging = config.isNativePaging() &&
+                    session.getCluster().getConfiguration().getProtocolOptions().getProtocolVersion() >= 2;
+
+            if (speculativeReadPercentile > 0 && locations.size() > 1) {
+                latencyTracker = LatencyTracker.forTable(config.getKeyspace(), cfName);
+            }
 
             retrieveKeys();
+            initFilters();
         } catch (Exception e) {
             throw new DeepIOException(e);
         }
+    }
+
+    /**
+     * Returns the row iterator, sending the first query the first time it is called.
+     */
+    private RowIterator rowIterator() {
+        if (rowIterator == null) {
+            rowIterator = new RowIterator();
+        }
 
-        rowIterator = new RowIterator();
+        return rowIterator;
     }
 
     /**
@@ -125,18 +211,26 @@ public class DeepRecordReader {
      */
     private Session createConnection() {
 
-        /* reorder locations */
-        List<String> locations = Lists.newArrayList(split.getReplicas());
-        Collections.sort(locations, new DeepPartitionLocationComparator());
+        /* reorder locations: local host first, then same rack and same datacenter */
+        locations = Lists.newArrayList(RangeUtils.datacenterReplicas(split, config.getDatacenter()));
+        Collections.sort(locations, new DeepPartitionLocationComparator(split.getLocations()));
+
+        if (locations.isEmpty()) {
+            LOG.warn("No replica of {} in datacenter {}, delegating connection to java driver", split,
+                    config.getDatacenter());
+            return getSession(config.getHost(), config, true).left;
+        }
 
         Exception lastException = null;
 
         LOG.debug("createConnection: " + locations);
-        for (String location : locations) {
+        for (Iterator<String> it = locations.iterator(); it.hasNext(); ) {
+            String location = it.next();
 
             try {
                 return trySessionForLocation(location, config, false).left;
             } catch (Exception e) {
+                it.remove();
                 LOG.error("Could not get connection for: {}, replicas: {}", location, locations);
                 lastException = e;
             }
@@ -145,186 +239,648 @@ public class DeepRecordReader {
         throw new DeepIOException(lastException);
     }
 
+    /**
+     * Returns a session connected to the next replica of the split, used to speculatively retry slow pages.
+     *
+     * @return the session, null if no other replica is reachable.
+     */
+    private Session speculativeSession() {
+        if (speculativeSession == null && locations.size() > 1) {
+            try {
+                speculativeSession = trySessionForLocation(locations.get(1), config, false).left;
+            } catch (Exception e) {
+                LOG.warn("Could not get speculative connection for: {}, replicas: {}", locations.get(1), locations);
+                locations.remove(1);
+            }
+        }
+
+        return speculativeSession != null && speculativeSession != session ? speculativeSession : null;
+    }
+
+    /**
+     * Logs a failed attempt to fetch a page, naming the hosts tried by the driver, or the replicas the sessions
+     * have been created for if none was tried.
+     */
+    private void logNoHostAvailable(NoHostAvailableException e) {
+        Object hosts = e.getErrors().isEmpty() ? locations : e.getErrors().keySet();
+        LOG.error("Could not connect to " + hosts, e);
+    }
+
+    /**
+     * Sleeps before retrying a query, using an exponential backoff with random jitter.
+     *
+     * @param attempt the number of failed attempts so far, starting at 1.
+     */
+    private static void backoff(int attempt) {
+        long max = Math.min(MAX_RETRY_BACKOFF, BASE_RETRY_BACKOFF << (attempt - 1));
+        long sleep = max / 2 + (long) (Math.random() * (max / 2));
+
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+            LOG.error("sleep exception", e);
+        }
+    }
+
+    /**
+     * Returns a future completed with the result of the first of the given futures that succeeds,
+     * or failed with the last error if all of them fail.
+     */
+    @SafeVarargs
+    private static <V> ListenableFuture<V> firstSuccessful(ListenableFuture<V>... futures) {
+        final SettableFuture<V> first = SettableFuture.create();
+        final AtomicInteger pending = new AtomicInteger(futures.length);
+
+        for (ListenableFuture<V> future : futures) {
+            Futures.addCallback(future, new FutureCallback<V>() {
+                @Override
+                public void onSuccess(V result) {
+                    first.set(result);
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    if (pending.decrementAndGet() == 0) {
+                        first.setException(t);
+                    }
+                }
+            });
+        }
+
+        return first;
+    }
+
     /**
      * Closes this input reader object.
      */
+    @Override
     public void close() {
         /* dummy close method, no need to close any resource here */
     }
 
     /**
-     * Creates a new key map.
+     * Returns the schema shared by all the rows returned by this reader.
      *
-     * @return the map of associations between row key names and their values.
+     * @return the schema of the rows of this split.
      */
-    public Map<String, ByteBuffer> createKey() {
-        return new LinkedHashMap<String, ByteBuffer>();
+    public DeepRowSchema getSchema() {
+        return schema;
     }
 
     /**
-     * Creates a new value map.
+     * Counts the rows of the split without transferring them.
+     * <p>
+     * Unless <i>scanKeys</i> is true, rows are counted by Cassandra issuing a COUNT query per sub-range, each
+     * sub-range being bisected until it holds less than {@value #MAX_COUNT_PER_QUERY} rows. Otherwise, or if a
+     * sub-range cannot be bisected any further, only the key columns of the rows are read and counted.
+     * </p>
+     * Must be called before reading any row.
      *
-     * @return the map of associations between row column names and their values.
+     * @param scanKeys whether to count the rows by scanning their keys instead of issuing COUNT queries.
+     * @return the number of rows of the split matching the configured filters.
+     */
+    public long count(boolean scanKeys) {
+        if (rowIterator != null) {
+            throw new DeepIllegalAccessException("Cannot count the rows of a reader that has already been read");
+        }
+
+        if (emptyPartitionLookup) {
+            return 0;
+        }
+
+        if (!scanKeys) {
+            if (partitionLookupClause == null) {
+                return countRange(split);
+            }
+
+            long count = count(partitionLookupClause, partitionLookupValues);
+            if (count < MAX_COUNT_PER_QUERY) {
+                return count;
+            }
+        }
+
+        List<String> keyNames = new ArrayList<>();
+        for (BoundColumn column : Iterables.concat(partitionBoundColumns, clusterColumns)) {
+            keyNames.add(column.name);
+        }
+
+        setColumnLayout(keyNames, Collections.<String>emptyList());
+
+        long count = 0;
+        while (hasNext()) {
+            next();
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Counts the rows of the given sub-range of the split, bisecting it while the count reaches the limit.
+     */
+    private long countRange(DeepTokenRange range) {
+        List<String> partitionKey = new ArrayList<>();
+        for (BoundColumn column : partitionBoundColumns) {
+            partitionKey.add(quote(column.name));
+        }
+
+        String tokenClause = String.format(" WHERE token(%1$s) > ? AND token(%1$s) <= ?",
+                StringUtils.join(partitionKey, ","));
+
+        long count = count(tokenClause, Arrays.asList(tokenValidator.decompose(range.getStartToken()),
+                tokenValidator.decompose(range.getEndToken())));
+
+        if (count < MAX_COUNT_PER_QUERY) {
+            return count;
+        }
+
+        List<DeepTokenRange> halves = RangeUtils.splitRange(range, partitioner, 2);
+        Comparable midpoint = halves.get(0).getEndToken();
+
+        if (midpoint.equals(range.getStartToken()) || midpoint.equals(range.getEndToken())) {
+            LOG.debug("Cannot bisect range {}, counting its keys", range);
+            return new DeepRecordReader(config, range).count(true);
+        }
+
+        return countRange(halves.get(0)) + countRange(halves.get(1));
+    }
+
+    /**
+     * Sends a COUNT query restricted by the given where clause and the configured filters.
      */
-    public Map<String, ByteBuffer> createValue() {
-        return new LinkedHashMap<String, ByteBuffer>();
+    private long count(String whereClause, List<ByteBuffer> values) {
+        String query = String.format("SELECT COUNT(*) FROM %s%s%s%s LIMIT %d ALLOW FILTERING", quote(cfName),
+                whereClause, filterClause, Utils.additionalFilterGenerator(config.getAdditionalFilters()),
+                MAX_COUNT_PER_QUERY);
+
+        BoundStatement statement = prepare(session, query).bind();
+        int index = 0;
+        for (ByteBuffer value : Iterables.concat(values, filterValues)) {
+            statement.setBytesUnsafe(index++, value);
+        }
+
+        try {
+            return session.execute(statement).one().getLong(0);
+        } catch (Exception e) {
+            throw new DeepIOException(e);
+        }
     }
 
     /**
-     * CQL row iterator
+     * A page of CQL rows requested to Cassandra. The query is sent asynchronously when the page is created,
+     * its result is retrieved (and cached) the first time {@link #rows()} is called.
+     * <p>
+     * When using native paging the whole token range is requested as a single page whose
+     * {@link #resultSet()} is iterated, the driver fetching the following pages as needed
+     * (see {@link RowIterator} for how those fetches are retried).
+     * </p>
+     * <p>
+     * When speculative reads are enabled and the query takes longer than the configured latency percentile,
+     * the same query is sent to the next replica of the token range and the first response wins.
+     * </p>
      */
-    class RowIterator extends AbstractIterator<Pair<Map<String, ByteBuffer>, Map<String, ByteBuffer>>> {
+    private class Page {
+        private final Session pageSession;         // the session the query is sent and retried to
+        private final PreparedStatement preparedStatement;
+        private final List<ByteBuffer> values;
+        private final int tailIndex;               // value returned by setTailNull before requesting this page
+        private final long startTime = System.nanoTime();
+        private final BoundStatement statement;
+        private final ResultSetFuture future;
+        private ResultSet resultSet;
+        private List<Row> rows;
+
+        Page(Session pageSession, PreparedStatement preparedStatement, List<ByteBuffer> values, int tailIndex) {
+            this.pageSession = pageSession;
+            this.preparedStatement = preparedStatement;
+            this.values = values;
+            this.tailIndex = tailIndex;
+            this.statement = bind(preparedStatement);
+            this.future = pageSession.executeAsync(statement);
+
+            if (latencyTracker != null) {
+                Futures.addCallback(future, new FutureCallback<ResultSet>() {
+                    @Override
+                    public void onSuccess(ResultSet result) {
+                        latencyTracker.record(System.nanoTime() - startTime);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        /* failed queries are not taken into account */
+                    }
+                });
+            }
+        }
+
+        private BoundStatement bind(PreparedStatement prepared) {
+            BoundStatement boundStatement = prepared.bind();
+            boundStatement.setFetchSize(pageSize);
+            for (int i = 0; i < values.size(); i++) {
+                boundStatement.setBytesUnsafe(i, values.get(i));
+            }
+
+            return boundStatement;
+        }
+
+        boolean isDone() {
+            return resultSet != null || future.isDone();
+        }
+
+        /**
+         * Waits for the page to be fetched and returns its rows.
+         */
+        List<Row> rows() {
+            if (rows == null) {
+                rows = resultSet().all();
+            }
+
+            return rows;
+        }
+
+        /**
+         * Waits for the page to be fetched, retrying the query up to three times if no host was available.
+         */
+        ResultSet resultSet() {
+            if (resultSet != null) {
+                return resultSet;
+            }
+
+            int retries = 0;
+            Exception exception = null;
+
+            try {
+                resultSet = latencyTracker != null ? getSpeculatively() : future.getUninterruptibly();
+            } catch (NoHostAvailableException e) {
+                logNoHostAvailable(e);
+                exception = e;
+                ++retries;
+            } catch (Exception e) {
+                throw new DeepIOException(e);
+            }
+
+            // only try three times for TimedOutException and UnavailableException
+            while (resultSet == null && retries < 3) {
+                backoff(retries);
+
+                try {
+                    resultSet = pageSession.execute(statement);
+                } catch (NoHostAvailableException e) {
+                    logNoHostAvailable(e);
+                    exception = e;
+                    ++retries;
+                } catch (Exception e) {
+                    throw new DeepIOException(e);
+                }
+            }
+
+            if (resultSet == null) {
+                throw new DeepIOException(exception);
+            }
+
+            return resultSet;
+        }
+
+        /**
+         * Waits for the page until the configured latency percentile is reached, then sends the query
+         * to the next replica and returns the first result received.
+         */
+        private ResultSet getSpeculatively() {
+            long threshold = latencyTracker.percentile(speculativeReadPercentile);
+            if (threshold < 0 || future.isDone()) {
+                return future.getUninterruptibly();
+            }
+
+            try {
+                return future.getUninterruptibly(threshold - (System.nanoTime() - startTime), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                Session speculativeSession = speculativeSession();
+                if (speculativeSession == null || speculativeSession == pageSession) {
+                    return future.getUninterruptibly();
+                }
+
+                LOG.debug("Page query exceeded {} ns, sending it to the next replica", threshold);
+                ResultSetFuture speculative = speculativeSession.executeAsync(
+                        bind(prepare(speculativeSession, preparedStatement.getQueryString())));
+
+                try {
+                    return Uninterruptibles.getUninterruptibly(firstSuccessful(future, speculative));
+                } catch (ExecutionException ee) {
+                    Throwables.propagateIfPossible(ee.getCause());
+                    throw new DeepIOException(ee.getCause());
+                }
+            }
+        }
+    }
+
+    /**
+     * CQL row iterator.
+     * <p>
+     * When native paging is available the token range is read with a single query, the driver fetching
+     * the following <i>pageSize</i> rows using the paging state returned with each page. Each of those fetches is
+     * waited for as the initial page is: if it takes longer than the configured latency percentile, or fails because
+     * no host was available, the iterator falls back to paging with queries, resuming after the last row read
+     * from the next replica of the token range. The following pages are then speculated and retried as usual.
+     * Field filters can only be evaluated with native paging, so when they are set slow fetches are waited for
+     * and failed ones are not retried.
+     * </p>
+     * <p>
+     * Otherwise, the query for the next page only depends on the last row of the previous one, so as soon as a
+     * page has been fetched the next one is requested asynchronously, up to <i>prefetchDepth</i> pages
+     * ahead of the one being consumed.
+     * </p>
+     */
+    class RowIterator extends AbstractIterator<DeepRow> {
         private int totalRead = 0;             // total number of cf rows read
+        private int rowsRead = 0;              // total number of cql rows read
         private Iterator<Row> rows;
-        private int pageRows = 0;                // the number of cql rows read of this page
-        private String previousRowKey = null;    // previous CF row key
+        private ByteBuffer[] previousRowValues;  // values of the previous CQL row, holding the previous CF row key
+        private ByteBuffer[] lastRowValues;      // values of the last CQL row returned, to resume native paging from
         private String partitionKeyString;       // keys in <key1>, <key2>, <key3> string format
         private String partitionKeyMarkers;      // question marks in ? , ? , ? format which matches the number of keys
 
+        // prepared statements indexed by query type: initial, next partition and one per clustering depth
+        private final PreparedStatement[] preparedStatements = new PreparedStatement[clusterColumns.size() + 2];
+
+        private final Deque<Page> pages = new ArrayDeque<>();   // requested pages not consumed yet
+        private Page lastPage;                   // the last requested page, the next query is built from its rows
+        private boolean noMorePages = false;
+        private ResultSet pagedRows;             // the result of the whole token range query, when using native paging
+        private Session querySession = session;  // the session pages are requested to, moved when resuming
+        private ListenableFuture<Void> nativeFetch;  // the last native page fetch and the time it was issued
+        private long nativeFetchStartTime;
+
         /**
          * Default constructor.
          */
         public RowIterator() {
+            if (emptyPartitionLookup) {
+                // none of the filtered partitions belongs to this split
+                noMorePages = true;
+                return;
+            }
+
             // initial page
-            executeQuery();
-        }
+            requestNextPage(true);
 
-        private boolean isColumnWanted(String columnName) {
-            return ArrayUtils.isEmpty(config.getInputColumns()) ||
-                    ArrayUtils.contains(config.getInputColumns(), columnName);
+            if (nativePaging) {
+                noMorePages = true;
+                pagedRows = pages.poll().resultSet();
+            }
+
+            prefetch();
         }
 
         /**
          * {@inheritDoc}
          */
-        protected Pair<Map<String, ByteBuffer>, Map<String, ByteBuffer>> computeNext() {
-            if (rows == null) {
-                return endOfData();
-            }
-
-            if (checkNoMorePagesToRead()) {
+        protected DeepRow computeNext() {
+            if (rowsRead >= limit || checkNoMorePagesToRead()) {
                 return endOfData();
             }
 
-            Map<String, ByteBuffer> valueColumns = createValue();
-            Map<String, ByteBuffer> keyColumns = createKey();
+            rowsRead++;
 
+            prefetch();
 
-            initColumns(valueColumns, keyColumns);
-
-            // increase total CQL row read for this page
-            pageRows++;
+            ByteBuffer[] values = initColumns();
+            lastRowValues = values;
 
             // increase total CF row read
-            if (newRow(keyColumns, previousRowKey)) {
+            if (newRow(values)) {
                 totalRead++;
             }
 
-            // read full page
-            readFullPage(keyColumns);
-
-            return Pair.create(keyColumns, valueColumns);
+            return new DeepRow(schema, values);
         }
 
-        private void readFullPage(Map<String, ByteBuffer> keyColumns) {
-            if (pageRows >= pageSize || !rows.hasNext()) {
-                Iterator<String> newKeys = keyColumns.keySet().iterator();
-                for (BoundColumn column : partitionBoundColumns) {
-                    column.value = keyColumns.get(newKeys.next());
+        /**
+         * Moves to the next non empty page, if any, waiting for it to be fetched.
+         */
+        private boolean checkNoMorePagesToRead() {
+            if (nativePaging) {
+                if (pagedRows == null) {
+                    return true;
                 }
 
-                for (BoundColumn column : clusterColumns) {
-                    column.value = keyColumns.get(newKeys.next());
+                while (pagedRows.getAvailableWithoutFetching() == 0 && !pagedRows.isFullyFetched()) {
+                    if (!awaitNativeFetch()) {
+                        // native paging has been abandoned, the remaining rows are read with queries
+                        return checkNoMorePagesToRead();
+                    }
                 }
 
-                executeQuery();
-                pageRows = 0;
+                return pagedRows.isExhausted();
             }
-        }
 
-        private boolean checkNoMorePagesToRead() {
-            int index = -2;
-
-            //check there are more page to read
-            while (!rows.hasNext()) {
-                // no more data
-                if (index == -1 || emptyPartitionKeyValues()) {
+            while (rows == null || !rows.hasNext()) {
+                if (pages.isEmpty() && !requestNextPage(true)) {
                     return true;
                 }
 
-                index = setTailNull(clusterColumns);
-                executeQuery();
-                pageRows = 0;
+                rows = pages.poll().rows().iterator();
+            }
+            return false;
+        }
 
-                if (rows == null || !rows.hasNext() && index < 0) {
-                    return true;
+        /**
+         * Requests pages ahead of the one being consumed without blocking, as long as the last requested
+         * page has already been fetched and the prefetch depth has not been reached.
+         */
+        private void prefetch() {
+            if (nativePaging) {
+                if (pagedRows != null && pagedRows.getAvailableWithoutFetching() <= pageSize * prefetchDepth && !pagedRows.isFullyFetched()) {
+                    nativeFetch();
                 }
+                return;
             }
-            return false;
+
+            while (pages.size() < prefetchDepth && requestNextPage(false)) {
+                // keep requesting
+            }
+        }
+
+        /**
+         * Asks the driver for the next native page, which is only requested once however many times it is asked.
+         */
+        private ListenableFuture<Void> nativeFetch() {
+            ListenableFuture<Void> fetch = pagedRows.fetchMoreResults();
+            if (fetch != nativeFetch) {
+                nativeFetch = fetch;
+                nativeFetchStartTime = System.nanoTime();
+            }
+
+            return fetch;
         }
 
-        private void initColumns(Map<String, ByteBuffer> valueColumns, Map<String, ByteBuffer> keyColumns) {
-            Row row = rows.next();
-            TableMetadata tableMetadata = ((GenericDeepJobConfig) config).fetchTableMetadata();
+        /**
+         * Waits for the next native page. If it takes longer than the configured latency percentile, or no host
+         * was available, the remaining rows are requested with queries, resuming after the last row read.
+         *
+         * @return false if native paging has been abandoned.
+         */
+        private boolean awaitNativeFetch() {
+            ListenableFuture<Void> fetch = nativeFetch();
+            boolean resumable = config.getFieldFilters() == null || config.getFieldFilters().isEmpty();
 
-            List<ColumnMetadata> partitionKeys = tableMetadata.getPartitionKey();
-            List<ColumnMetadata> clusteringKeys = tableMetadata.getClusteringColumns();
-            List<ColumnMetadata> allColumns = tableMetadata.getColumns();
+            try {
+                long threshold = latencyTracker != null ? latencyTracker.percentile(speculativeReadPercentile) : -1;
+                if (threshold < 0 || fetch.isDone() || !resumable) {
+                    Uninterruptibles.getUninterruptibly(fetch);
+                } else {
+                    try {
+                        Uninterruptibles.getUninterruptibly(fetch,
+                                threshold - (System.nanoTime() - nativeFetchStartTime), TimeUnit.NANOSECONDS);
+                    } catch (TimeoutException e) {
+                        Session speculativeSession = speculativeSession();
+                        if (speculativeSession == null) {
+                            Uninterruptibles.getUninterruptibly(fetch);
+                        } else {
+                            LOG.debug("Native page fetch exceeded {} ns, resuming on the next replica", threshold);
+                            resumeWithQueries(speculativeSession);
+                            return false;
+                        }
+                    }
+                }
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof NoHostAvailableException) || !resumable) {
+                    throw new DeepIOException(e.getCause());
+                }
 
-            for (ColumnMetadata key : partitionKeys) {
-                String columnName = key.getName();
-                ByteBuffer bb = row.getBytesUnsafe(columnName);
-                keyColumns.put(columnName, bb);
+                logNoHostAvailable((NoHostAvailableException) e.getCause());
+                Session speculativeSession = speculativeSession();
+                resumeWithQueries(speculativeSession != null ? speculativeSession : session);
+                return false;
             }
-            for (ColumnMetadata key : clusteringKeys) {
-                String columnName = key.getName();
-                ByteBuffer bb = row.getBytesUnsafe(columnName);
-                keyColumns.put(columnName, bb);
+
+            if (latencyTracker != null) {
+                latencyTracker.record(System.nanoTime() - nativeFetchStartTime);
             }
-            for (ColumnMetadata key : allColumns) {
-                String columnName = key.getName();
-                if (keyColumns.containsKey(columnName) || !isColumnWanted(columnName)) {
-                    continue;
-                }
+            return true;
+        }
 
-                ByteBuffer bb = row.getBytesUnsafe(columnName);
-                valueColumns.put(columnName, bb);
+        /**
+         * Stops native paging and requests the rows following the last one read with a query, whose pages
+         * are then speculated and retried like any other.
+         *
+         * @param target the session to send the following queries to.
+         */
+        private void resumeWithQueries(Session target) {
+            nativePaging = false;
+            pagedRows = null;
+            noMorePages = false;
+
+            // the statements prepared so far have no page limit
+            Arrays.fill(preparedStatements, null);
+
+            if (lastRowValues != null) {
+                int index = 0;
+                for (BoundColumn column : Iterables.concat(partitionBoundColumns, clusterColumns)) {
+                    column.value = lastRowValues[index++];
+                }
             }
+
+            querySession = target;
+            sendPage(NO_TAIL_INDEX);
         }
 
         /**
-         * check whether start to read a new CF row by comparing the partition keys
+         * Builds the query for the page following the last requested one and sends it.
+         *
+         * @param wait whether to wait for the last requested page to be fetched.
+         * @return false if there are no more pages to read or, when not waiting, the last page has not been fetched yet.
          */
-        private boolean newRow(Map<String, ByteBuffer> keyColumns, String previousRowKey) {
-            if (keyColumns.isEmpty()) {
+        private boolean requestNextPage(boolean wait) {
+            if (noMorePages) {
                 return false;
             }
 
-            String rowKey = "";
-            if (keyColumns.size() == 1) {
-                rowKey = partitionBoundColumns.get(0).validator.getString(keyColumns.get(partitionBoundColumns.get(0)
-                        .name));
-            } else {
-                Iterator<ByteBuffer> iter = keyColumns.values().iterator();
+            int tailIndex = NO_TAIL_INDEX;
 
-                for (BoundColumn column : partitionBoundColumns) {
-                    rowKey = rowKey + column.validator.getString(ByteBufferUtil.clone(iter.next())) + ":";
+            if (lastPage != null) {
+                if (!wait && !lastPage.isDone()) {
+                    return false;
                 }
-            }
 
-            if (previousRowKey == null) {
-                this.previousRowKey = rowKey;
-                return true;
+                List<Row> lastRows = lastPage.rows();
+
+                if (lastRows.isEmpty()) {
+                    // no more data
+                    if (lastPage.tailIndex < 0 || emptyPartitionKeyValues()) {
+                        noMorePages = true;
+                        return false;
+                    }
+
+                    tailIndex = setTailNull(clusterColumns);
+                } else {
+                    Row row = lastRows.get(lastRows.size() - 1);
+                    int index = 0;
+                    for (BoundColumn column : Iterables.concat(partitionBoundColumns, clusterColumns)) {
+                        column.value = row.getBytesUnsafe(index++);
+                    }
+                }
             }
 
-            if (rowKey.equals(previousRowKey)) {
+            return sendPage(tailIndex);
+        }
+
+        /**
+         * Sends the query for the rows following the current key column values.
+         *
+         * @param tailIndex the value returned by setTailNull before building the query, if called.
+         * @return false if the end of the token range has been reached.
+         */
+        private boolean sendPage(int tailIndex) {
+            Pair<Integer, List<ByteBuffer>> bindValues = preparedQueryBindValues();
+
+            // check whether it reach end of range for type 1 query CASSANDRA-5573
+            if (bindValues.left == 1 && reachEndRange()) {
+                noMorePages = true;
                 return false;
             }
 
-            this.previousRowKey = rowKey;
+            PreparedStatement prepared = querySession == session ? preparedStatement(bindValues.left)
+                    : prepare(querySession, composeQuery().right);
+            lastPage = new Page(querySession, prepared, bindValues.right, tailIndex);
+            pages.add(lastPage);
             return true;
         }
 
+        private ByteBuffer[] initColumns() {
+            Row row = nativePaging ? pagedRows.one() : rows.next();
+            ByteBuffer[] values = new ByteBuffer[schema.size()];
+
+            for (int i = 0; i < values.length; i++) {
+                values[i] = row.getBytesUnsafe(i);
+            }
+
+            return values;
+        }
+
+        /**
+         * check whether start to read a new CF row by comparing the raw partition key values with the previous row ones
+         */
+        private boolean newRow(ByteBuffer[] values) {
+            if (schema.getKeyCount() == 0) {
+                return false;
+            }
+
+            ByteBuffer[] previous = previousRowValues;
+            previousRowValues = values;
+
+            if (previous == null) {
+                return true;
+            }
+
+            for (int i = 0; i < partitionBoundColumns.size(); i++) {
+                if (!values[i].equals(previous[i])) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
         /**
          * set the last non-null key value to null, and return the previous index
          */
@@ -356,53 +912,29 @@ public class DeepRecordReader {
         /**
          * serialize the prepared query, pair.left is query id, pair.right is query
          */
-        private Pair<Integer, String> composeQuery(String cols) {
-            String generatedColumns = cols;
+        private Pair<Integer, String> composeQuery() {
             Pair<Integer, String> clause = whereClause();
-            if (generatedColumns == null) {
-                generatedColumns = "*";
-            } else {
-                // add keys in the front in order
-                String partitionKey = keyString(partitionBoundColumns);
-                String clusterKey = keyString(clusterColumns);
-
-                generatedColumns = withoutKeyColumns(generatedColumns);
-                generatedColumns = (clusterKey == null || "".equals(clusterKey))
-                        ? partitionKey + (generatedColumns != null ? ("," + generatedColumns) : "")
-                        : partitionKey + "," + clusterKey + (generatedColumns != null ? ("," + generatedColumns) : "");
-            }
 
             return Pair.create(clause.left,
-                    String.format("SELECT %s FROM %s%s%s LIMIT %d ALLOW FILTERING",
-                            generatedColumns,
+                    String.format("SELECT %s FROM %s%s%s%s%s ALLOW FILTERING",
+                            columns,
                             quote(cfName),
                             clause.right,
+                            filterClause,
                             Utils.additionalFilterGenerator(config.getAdditionalFilters()),
-                            pageSize)
+                            limitClause())
             );
         }
 
         /**
-         * remove key columns from the column string
+         * the limit of the query: the page size when paging with queries, the row budget otherwise
          */
-        private String withoutKeyColumns(String columnString) {
-            Set<String> keyNames = new HashSet<>();
-            for (BoundColumn column : Iterables.concat(partitionBoundColumns, clusterColumns)) {
-                keyNames.add(column.name);
+        private String limitClause() {
+            if (!nativePaging) {
+                return " LIMIT " + pageSize;
             }
 
-            String[] cols = columnString.split(",");
-            String result = null;
-            for (String column : cols) {
-                String trimmed = column.trim();
-                if (keyNames.contains(trimmed)) {
-                    continue;
-                }
-
-                String quoted = quote(trimmed);
-                result = result == null ? quoted : result + "," + quoted;
-            }
-            return result;
+            return limit == NO_LIMIT ? "" : " LIMIT " + limit;
         }
 
         /**
@@ -418,6 +950,11 @@ public class DeepRecordReader {
             }
             // initial query token(k) >= start_token and token(k) <= end_token
             if (emptyPartitionKeyValues()) {
+                if (partitionLookupClause != null) {
+                    // initial query k1 = ? and k2 in (?, ?), restricted to the partitions owned by the split
+                    return Pair.create(0, partitionLookupClause);
+                }
+
                 return Pair.create(0, String.format(" WHERE token(%s) > ? AND token(%s) <= ?", partitionKeyString,
                         partitionKeyString));
             }
@@ -488,25 +1025,28 @@ public class DeepRecordReader {
         /**
          * serialize the query binding variables, pair.left is query id, pair.right is the binding variables
          */
-        private Pair<Integer, List<Object>> preparedQueryBindValues() {
-            List<Object> values = new LinkedList<>();
-
-            Object startToken = split.getStartToken();
-            Object endToken = split.getEndToken();
+        private Pair<Integer, List<ByteBuffer>> preparedQueryBindValues() {
+            List<ByteBuffer> values = new ArrayList<>();
 
             // initial query token(k) >= start_token and token(k) <= end_token
             if (emptyPartitionKeyValues()) {
-                values.add(startToken);
-                values.add(endToken);
+                if (partitionLookupValues != null) {
+                    values.addAll(partitionLookupValues);
+                } else {
+                    values.add(tokenValidator.decompose(split.getStartToken()));
+                    values.add(tokenValidator.decompose(split.getEndToken()));
+                }
+
+                values.addAll(filterValues);
                 return Pair.create(0, values);
             } else {
                 for (BoundColumn bColumn : partitionBoundColumns) {
-                    values.add(bColumn.validator.compose(bColumn.value));
+                    values.add(bColumn.value);
                 }
 
                 if (clusterColumns.isEmpty() || clusterColumns.get(0).value == null) {
                     // query token(k) > token(pre_partition_key) and token(k) <= end_token
-                    values.add(endToken);
+                    values.add(tokenValidator.decompose(split.getEndToken()));
                     return Pair.create(1, values);
                 } else {
                     // query token(k) = token(pre_partition_key) and m = pre_cluster_key_m and n > pre_cluster_key_n
@@ -519,78 +1059,29 @@ public class DeepRecordReader {
         /**
          * recursively serialize the query binding variables
          */
-        private int preparedQueryBindValues(List<BoundColumn> columns, int position, List<Object> bindValues) {
-            BoundColumn boundColumn = columns.get(position);
-            Object boundColumnValue = boundColumn.validator.compose(boundColumn.value);
+        private int preparedQueryBindValues(List<BoundColumn> columns, int position, List<ByteBuffer> bindValues) {
+            bindValues.add(columns.get(position).value);
+
             if (position == columns.size() - 1 || columns.get(position + 1).value == null) {
-                bindValues.add(boundColumnValue);
                 return position + 2;
             } else {
-                bindValues.add(boundColumnValue);
                 return preparedQueryBindValues(columns, position + 1, bindValues);
             }
         }
 
         /**
-         * Quoting for working with uppercase
+         * Returns the prepared statement for the given query type, composing and preparing
+         * the query only the first time the type is requested.
          */
-        private String quote(String identifier) {
-            return "\"" + identifier.replaceAll("\"", "\"\"") + "\"";
-        }
-
-        /**
-         * execute the prepared query
-         */
-        private void executeQuery() {
-            Pair<Integer, String> query = composeQuery(columns);
-
-            Pair<Integer, List<Object>> bindValues = null;
-            try {
-                bindValues = preparedQueryBindValues();
-            } catch (Exception e) {
-                LOG.error("Exception", e);
-            }
+        private PreparedStatement preparedStatement(int queryType) {
+            PreparedStatement statement = preparedStatements[queryType];
 
-            // check whether it reach end of range for type 1 query CASSANDRA-5573
-            if (bindValues.left == 1 && reachEndRange()) {
-                rows = null;
-                return;
+            if (statement == null) {
+                statement = prepare(session, composeQuery().right);
+                preparedStatements[queryType] = statement;
             }
 
-            int retries = 0;
-
-            Exception exception = null;
-            // only try three times for TimedOutException and UnavailableException
-            while (retries < 3) {
-                try {
-                    Object[] values = bindValues.right.toArray(new Object[bindValues.right.size()]);
-
-                    ResultSet resultSet = session.execute(query.right, values);
-
-                    if (resultSet != null) {
-                        rows = resultSet.iterator();
-                    }
-                    return;
-                } catch (NoHostAvailableException e) {
-                    LOG.error("Could not connect to ");
-                    exception = e;
-
-                    try {
-                        Thread.sleep(100);
-                    } catch (InterruptedException e1) {
-                        LOG.error("sleep exception",e1);
-                    }
-
-                    ++retries;
-
-                } catch (Exception e) {
-                    throw new DeepIOException(e);
-                }
-            }
-
-            if (exception != null) {
-                throw new DeepIOException(exception);
-            }
+            return statement;
         }
     }
 
@@ -619,6 +1110,8 @@ public class DeepRecordReader {
             clusterColumns.add(boundColumn);
         }
 
+        initColumnLayout(tableMetadata);
+
         if (types.size() > 1) {
             keyValidator = CompositeType.getInstance(types);
         } else if (types.size() == 1) {
@@ -629,6 +1122,154 @@ public class DeepRecordReader {
         }
     }
 
+    /**
+     * computes the positions of the key and projected value columns in the rows returned by the page queries,
+     * so rows can be decoded by index without looking up the table metadata
+     */
+    private void initColumnLayout(TableMetadata tableMetadata) {
+        List<String> keyNames = new ArrayList<>();
+        for (BoundColumn column : Iterables.concat(partitionBoundColumns, clusterColumns)) {
+            keyNames.add(column.name);
+        }
+
+        Set<String> wantedColumns = ArrayUtils.isEmpty(config.getInputColumns()) ? null :
+                new HashSet<>(Arrays.asList(config.getInputColumns()));
+
+        List<String> valueNames = new ArrayList<>();
+        for (ColumnMetadata column : tableMetadata.getColumns()) {
+            String columnName = column.getName();
+            if (keyNames.contains(columnName) || (wantedColumns != null && !wantedColumns.contains(columnName))) {
+                continue;
+            }
+
+            valueNames.add(columnName);
+        }
+
+        setColumnLayout(keyNames, valueNames);
+    }
+
+    /**
+     * sets the schema of the rows and the select list of the page queries
+     */
+    private void setColumnLayout(List<String> keyNames, List<String> valueNames) {
+        schema = new DeepRowSchema(keyNames.toArray(new String[keyNames.size()]), partitionBoundColumns.size(),
+                valueNames.toArray(new String[valueNames.size()]), config.columnDefinitions());
+
+        List<String> quotedNames = new ArrayList<>();
+        for (String columnName : Iterables.concat(keyNames, valueNames)) {
+            quotedNames.add(quote(columnName));
+        }
+
+        columns = StringUtils.join(quotedNames, ",");
+    }
+
+    /**
+     * builds the restrictions corresponding to the configured field filters, partition key filters replacing the
+     * token range restriction of the initial query
+     */
+    @SuppressWarnings("unchecked")
+    private void initFilters() {
+        List<FieldFilter> fieldFilters = config.getFieldFilters();
+        if (fieldFilters.isEmpty()) {
+            return;
+        }
+
+        if (!nativePaging) {
+            throw new DeepIOException("Field filters require native paging, which is not supported by the cluster");
+        }
+
+        Map<String, Cell> columnDefinitions = config.columnDefinitions();
+        Map<String, FieldFilter> partitionKeyFilters = new HashMap<>();
+        StringBuilder clause = new StringBuilder();
+        filterValues = new ArrayList<>();
+
+        for (FieldFilter filter : fieldFilters) {
+            Cell cell = columnDefinitions.get(filter.getField());
+
+            if (cell.isPartitionKey()) {
+                partitionKeyFilters.put(filter.getField(), filter);
+                continue;
+            }
+
+            clause.append(" AND ").append(quote(filter.getField())).append(" ").append(filter.getOperator().toCql())
+                    .append(" ?");
+            filterValues.add(cell.marshaller().decompose(filter.getValues().get(0)));
+        }
+
+        filterClause = clause.toString();
+
+        if (!partitionKeyFilters.isEmpty()) {
+            initPartitionLookup(partitionKeyFilters);
+        }
+    }
+
+    /**
+     * builds the where clause reading the partitions selected by the partition key filters whose token belongs to
+     * the split, the last partition key column being restricted by IN
+     */
+    @SuppressWarnings("unchecked")
+    private void initPartitionLookup(Map<String, FieldFilter> partitionKeyFilters) {
+        int last = partitionBoundColumns.size() - 1;
+        ByteBuffer[] key = new ByteBuffer[partitionBoundColumns.size()];
+        StringBuilder clause = new StringBuilder(" WHERE ");
+        partitionLookupValues = new ArrayList<>();
+
+        for (int i = 0; i < last; i++) {
+            BoundColumn column = partitionBoundColumns.get(i);
+            key[i] = ((AbstractType) column.validator).decompose(
+                    partitionKeyFilters.get(column.name).getValues().get(0));
+
+            partitionLookupValues.add(key[i]);
+            clause.append(quote(column.name)).append(" = ? AND ");
+        }
+
+        BoundColumn lastColumn = partitionBoundColumns.get(last);
+        List<String> markers = new ArrayList<>();
+
+        for (Serializable value : partitionKeyFilters.get(lastColumn.name).getValues()) {
+            key[last] = ((AbstractType) lastColumn.validator).decompose(value);
+
+            if (ownsPartition(key)) {
+                partitionLookupValues.add(key[last]);
+                markers.add("?");
+            }
+        }
+
+        emptyPartitionLookup = markers.isEmpty();
+        partitionLookupClause = clause.append(quote(lastColumn.name)).append(" IN (")
+                .append(StringUtils.join(markers, ",")).append(")").toString();
+    }
+
+    /**
+     * check whether the token of the given partition key belongs to the split
+     */
+    private boolean ownsPartition(ByteBuffer[] key) {
+        ByteBuffer rowKey;
+
+        if (keyValidator instanceof CompositeType) {
+            ByteBuffer[] keys = new ByteBuffer[key.length];
+            for (int i = 0; i < key.length; i++) {
+                keys[i] = key[i].duplicate();
+            }
+
+            rowKey = CompositeType.build(keys);
+        } else {
+            rowKey = key[0];
+        }
+
+        Comparable token = (Comparable) tokenValidator.compose(
+                tokenValidator.fromString(partitioner.getToken(rowKey).toString()));
+        Comparable start = split.getStartToken();
+        Comparable end = split.getEndToken();
+
+        if (start.compareTo(end) < 0) {
+            return token.compareTo(start) > 0 && token.compareTo(end) <= 0;
+        }
+
+        // wrapping range
+        return token.compareTo(start) > 0 || token.compareTo(end) <= 0;
+    }
+
     /**
      * check whether current row is at the end of range
      */
@@ -653,6 +1294,13 @@ public class DeepRecordReader {
         return endToken.equals(currentToken);
     }
 
+    /**
+     * Quoting for working with uppercase
+     */
+    private static String quote(String identifier) {
+        return "\"" + identifier.replaceAll("\"", "\"\"") + "\"";
+    }
+
     private static class BoundColumn {
         private final String name;
         private ByteBuffer value;
@@ -669,8 +1317,9 @@ public class DeepRecordReader {
      *
      * @return a boolean indicating if the underlying rowIterator has a new element or not.
      */
+    @Override
     public boolean hasNext() {
-        return rowIterator.hasNext();
+        return rowIterator().hasNext();
     }
 
     /**
@@ -678,10 +1327,11 @@ public class DeepRecordReader {
      *
      * @return the next element in the underlying rowIterator.
      */
-    public Pair<Map<String, ByteBuffer>, Map<String, ByteBuffer>> next() {
+    @Override
+    public DeepRow next() {
         if (!this.hasNext()) {
             throw new DeepIllegalAccessException("DeepRecordReader exhausted");
         }
-        return rowIterator.next();
+        return rowIterator().next();
     }
 }
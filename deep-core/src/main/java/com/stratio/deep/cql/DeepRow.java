@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.deep.cql;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A row read by {@link DeepRecordReader}: the raw serialized values of its columns indexed by
+ * ordinal, as described by the {@link DeepRowSchema} shared by all the rows of the same split.
+ */
+public final class DeepRow {
+    private final DeepRowSchema schema;
+    private final ByteBuffer[] values;
+
+    /**
+     * Builds a new row.
+     *
+     * @param schema the schema of this row.
+     * @param values the column values, indexed by ordinal.
+     */
+    public DeepRow(DeepRowSchema schema, ByteBuffer[] values) {
+        this.schema = schema;
+        this.values = values;
+    }
+
+    /**
+     * @return the schema of this row.
+     */
+    public DeepRowSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @return the number of columns of this row.
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * @param ordinal the column ordinal.
+     * @return the serialized value of the column at the given position, null if the column has no value.
+     */
+    public ByteBuffer getValue(int ordinal) {
+        return values[ordinal];
+    }
+
+    /**
+     * Checks whether the given row belongs to the same partition as this one, comparing the serialized
+     * partition key values.
+     *
+     * @param other the row to compare to.
+     * @return true if both rows have the same partition key.
+     */
+    public boolean samePartition(DeepRow other) {
+        for (int i = 0; i < schema.getPartitionKeyCount(); i++) {
+            if (!values[i].equals(other.values[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.deep.cql;
+
+import com.stratio.deep.entity.Cell;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable description of the columns of the rows returned by a {@link DeepRecordReader}.
+ * <p>
+ * Columns are identified by their ordinal: key columns (partition keys followed by clustering keys)
+ * come first, followed by the projected value columns. A single instance is shared by all the
+ * {@link DeepRow}s read from the same split.
+ * </p>
+ */
+public final class DeepRowSchema {
+    private final String[] names;
+    private final Cell[] cellDefinitions;
+    private final int keyCount;
+    private final int partitionKeyCount;
+    private final Map<String, Integer> ordinals;
+
+    /**
+     * Builds a new schema.
+     *
+     * @param keyNames          names of the key columns, partition keys first.
+     * @param partitionKeyCount the number of partition keys.
+     * @param valueNames        names of the projected value columns.
+     * @param cellDefinitions   the column definitions of the table, indexed by column name.
+     */
+    public DeepRowSchema(String[] keyNames, int partitionKeyCount, String[] valueNames,
+                         Map<String, Cell> cellDefinitions) {
+        this.keyCount = keyNames.length;
+        this.partitionKeyCount = partitionKeyCount;
+        this.names = new String[keyNames.length + valueNames.length];
+        System.arraycopy(keyNames, 0, names, 0, keyNames.length);
+        System.arraycopy(valueNames, 0, names, keyNames.length, valueNames.length);
+
+        this.cellDefinitions = new Cell[names.length];
+        this.ordinals = new HashMap<>();
+
+        for (int i = 0; i < names.length; i++) {
+            this.cellDefinitions[i] = cellDefinitions != null ? cellDefinitions.get(names[i]) : null;
+            this.ordinals.put(names[i], i);
+        }
+    }
+
+    /**
+     * @return the total number of columns.
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return the number of key columns, which are the first ones.
+     */
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    /**
+     * @return the number of partition key columns, which are the first ones.
+     */
+    public int getPartitionKeyCount() {
+        return partitionKeyCount;
+    }
+
+    /**
+     * @param ordinal the column ordinal.
+     * @return true if the column at the given position is a partition or clustering key.
+     */
+    public boolean isKey(int ordinal) {
+        return ordinal < keyCount;
+    }
+
+    /**
+     * @param ordinal the column ordinal.
+     * @return the name of the column at the given position.
+     */
+    public String getName(int ordinal) {
+        return names[ordinal];
+    }
+
+    /**
+     * @param ordinal the column ordinal.
+     * @return the cell metadata of the column at the given position, or null if the column has no definition.
+     */
+    public Cell getCellDefinition(int ordinal) {
+        return cellDefinitions[ordinal];
+    }
+
+    /**
+     * @param name the column name.
+     * @return the ordinal of the column with the given name, or -1 if the column is not part of this schema.
+     */
+    public int indexOf(String name) {
+        Integer ordinal = ordinals.get(name);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "DeepRowSchema{" +
+                "names=" + Arrays.toString(names) +
+                ", keyCount=" + keyCount +
+                '}';
+    }
+}
@@ -18,6 +18,7 @@ package com.stratio.deep.cql;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Wrapper class holding information of a computed token range.
@@ -26,6 +27,7 @@ public class DeepTokenRange implements Comparable<DeepTokenRange>, Serializable
     private Comparable startToken;
     private Comparable endToken;
     private List<String> replicas;
+    private Map<String, HostLocation> locations;
 
     /**
      * Construct a new token range with no replica information.
@@ -46,9 +48,24 @@ public class DeepTokenRange implements Comparable<DeepTokenRange>, Serializable
      * @param replicas the list of replica machines holding this range of tokens.
      */
     public DeepTokenRange(Comparable startToken, Comparable endToken, List<String> replicas) {
+        this(startToken, endToken, replicas, null);
+    }
+
+    /**
+     * Construct a new token range with replica and location information, used to rank the replicas by locality
+     * without resolving their names.
+     *
+     * @param startToken first token of this range.
+     * @param endToken last token of this range.
+     * @param replicas the list of replica machines holding this range of tokens.
+     * @param locations the location of the replicas of this range, indexed by host name.
+     */
+    public DeepTokenRange(Comparable startToken, Comparable endToken, List<String> replicas,
+                          Map<String, HostLocation> locations) {
         this.startToken = startToken;
         this.endToken = endToken;
         this.replicas = replicas;
+        this.locations = locations;
     }
 
     /**
@@ -117,6 +134,13 @@ public class DeepTokenRange implements Comparable<DeepTokenRange>, Serializable
         return replicas;
     }
 
+    /**
+     * @return the location of the replicas of this range, indexed by host name, or null if unknown.
+     */
+    public Map<String, HostLocation> getLocations() {
+        return locations;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.stratio.deep.cql;
+
+import java.io.Serializable;
+import java.net.InetAddress;
+
+/**
+ * Network location of a cluster host, as reported by the driver metadata.
+ */
+public final class HostLocation implements Serializable {
+    private static final long serialVersionUID = -2215438164096331405L;
+
+    private final InetAddress address;
+    private final String datacenter;
+    private final String rack;
+
+    /**
+     * Constructs the location of a host.
+     *
+     * @param address    the address of the host.
+     * @param datacenter the datacenter of the host.
+     * @param rack       the rack of the host.
+     */
+    public HostLocation(InetAddress address, String datacenter, String rack) {
+        this.address = address;
+        this.datacenter = datacenter;
+        this.rack = rack;
+    }
+
+    /**
+     * @return the address of the host.
+     */
+    public InetAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * @return the datacenter of the host.
+     */
+    public String getDatacenter() {
+        return datacenter;
+    }
+
+    /**
+     * @return the rack of the host.
+     */
+    public String getRack() {
+        return rack;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "HostLocation{" +
+                "address=" + address +
+                ", datacenter='" + datacenter + '\'' +
+                ", rack='" + rack + '\'' +
+                '}';
+    }
+}
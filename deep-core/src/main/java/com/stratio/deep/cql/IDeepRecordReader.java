@@ -0,0 +1,43 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.deep.cql;
+
+/**
+ * Common interface of the readers returning the rows of a token range.
+ */
+public interface IDeepRecordReader {
+
+    /**
+     * Returns a boolean indicating if the reader has a new row or not.
+     * DOES NOT advance the reader to the next row.
+     *
+     * @return a boolean indicating if the reader has a new row or not.
+     */
+    boolean hasNext();
+
+    /**
+     * Returns the next row.
+     *
+     * @return the next row read from Cassandra.
+     */
+    DeepRow next();
+
+    /**
+     * Closes this reader, releasing any resource held.
+     */
+    void close();
+}
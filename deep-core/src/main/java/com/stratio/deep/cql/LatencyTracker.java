@@ -0,0 +1,99 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.deep.cql;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps track of the latencies of the most recent page queries issued against a table, so that
+ * {@link DeepRecordReader} can tell when a page query is being unusually slow.
+ * <p>
+ * Trackers are shared by all the readers of the same table running in the same JVM.
+ * </p>
+ */
+class LatencyTracker {
+    private static final Map<String, LatencyTracker> trackersCache = Collections.synchronizedMap(new
+            HashMap<String, LatencyTracker>());
+
+    static final int MAX_SAMPLES = 1024;
+    static final int MIN_SAMPLES = 32;
+
+    private final long[] samples = new long[MAX_SAMPLES];
+    private int count = 0;
+    private int next = 0;
+
+    LatencyTracker() {
+    }
+
+    /**
+     * Returns the tracker for the given table, creating it if needed.
+     *
+     * @param keyspace the keyspace name.
+     * @param table    the table name.
+     * @return the latency tracker of the table.
+     */
+    static LatencyTracker forTable(String keyspace, String table) {
+        synchronized (trackersCache) {
+            String key = keyspace + "." + table;
+            LatencyTracker tracker = trackersCache.get(key);
+
+            if (tracker == null) {
+                tracker = new LatencyTracker();
+                trackersCache.put(key, tracker);
+            }
+
+            return tracker;
+        }
+    }
+
+    /**
+     * Records a new latency sample, replacing the oldest one when the tracker is full.
+     *
+     * @param nanos the latency in nanoseconds.
+     */
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % MAX_SAMPLES;
+        count = Math.min(count + 1, MAX_SAMPLES);
+    }
+
+    /**
+     * Returns the given percentile of the recorded latencies.
+     *
+     * @param percentile the percentile to compute, between 0 (exclusive) and 100 (exclusive).
+     * @return the latency in nanoseconds, or -1 if less than {@link #MIN_SAMPLES} latencies have been recorded.
+     */
+    long percentile(double percentile) {
+        long[] sorted;
+
+        synchronized (this) {
+            if (count < MIN_SAMPLES) {
+                return -1;
+            }
+
+            sorted = Arrays.copyOf(samples, count);
+        }
+
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -32,12 +32,25 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Load balancing policy that, unlike round robin, sticks to one host.
+ * When a datacenter is given, hosts of other datacenters are ignored.
  */
 public class LocalMachineLoadBalancingPolicy extends RoundRobinPolicy {
     private InetAddress host;
+    private String datacenter;
 
     public LocalMachineLoadBalancingPolicy(InetAddress host) {
+        this(host, null);
+    }
+
+    /**
+     * Constructs a policy sticking to the given host, ignoring the hosts not belonging to the given datacenter.
+     *
+     * @param host       the address of the host to stick to.
+     * @param datacenter the datacenter to use, null to use all of them.
+     */
+    public LocalMachineLoadBalancingPolicy(InetAddress host, String datacenter) {
         this.host = host;
+        this.datacenter = datacenter;
     }
 
     private final CopyOnWriteArrayList<Host> liveHosts = new CopyOnWriteArrayList<Host>();
@@ -58,16 +71,19 @@ public class LocalMachineLoadBalancingPolicy extends RoundRobinPolicy {
     /**
      * Return the HostDistance for the provided host.
      * <p/>
-     * This policy consider all nodes as local. This is generally the right
-     * thing to do in a single datacenter deployment. If you use multiple
-     * datacenter, see {@link com.datastax.driver.core.policies.DCAwareRoundRobinPolicy} instead.
+     * This policy consider all nodes of the configured datacenter as local, and ignores the nodes of the other
+     * datacenters. All nodes are local if no datacenter has been configured.
      *
      * @param host the host of which to return the distance of.
      * @return the HostDistance to {@code host}.
      */
     @Override
     public HostDistance distance(Host host) {
-        return HostDistance.LOCAL;
+        return isIgnored(host) ? HostDistance.IGNORED : HostDistance.LOCAL;
+    }
+
+    private boolean isIgnored(Host host) {
+        return datacenter != null && !host.getAddress().equals(this.host) && !datacenter.equals(host.getDatacenter());
     }
 
     /**
@@ -122,7 +138,9 @@ public class LocalMachineLoadBalancingPolicy extends RoundRobinPolicy {
 
     @Override
     public void onUp(Host host) {
-        liveHosts.addIfAbsent(host);
+        if (!isIgnored(host)) {
+            liveHosts.addIfAbsent(host);
+        }
     }
 
     @Override
@@ -18,24 +18,35 @@ package com.stratio.deep.cql;
 
 import com.datastax.driver.core.*;
 import com.google.common.base.Function;
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Ordering;
 import com.stratio.deep.config.IDeepJobConfig;
 import com.stratio.deep.exception.DeepGenericException;
+import com.stratio.deep.utils.Constants;
 import com.stratio.deep.utils.Utils;
 import org.apache.cassandra.db.marshal.AbstractType;
 import org.apache.cassandra.dht.*;
+import org.apache.cassandra.dht.Token.TokenFactory;
 import org.apache.cassandra.hadoop.cql3.CqlPagingRecordReader;
+import org.apache.cassandra.thrift.AuthenticationRequest;
+import org.apache.cassandra.thrift.Cassandra;
+import org.apache.cassandra.thrift.CfSplit;
 import org.apache.cassandra.utils.Pair;
+import org.apache.commons.lang.StringUtils;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.transport.TFramedTransport;
+import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
+import java.math.BigInteger;
 import java.net.InetAddress;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.google.common.collect.Iterables.*;
 
@@ -46,6 +57,17 @@ import static com.google.common.collect.Iterables.*;
  * @author Luca Rosellini <luca@strat.io>
  */
 public class RangeUtils {
+    private static final Logger LOG = LoggerFactory.getLogger(RangeUtils.class);
+
+    /*
+     * Names of the cluster hosts, indexed by address.
+     */
+    private static final ConcurrentMap<InetAddress, String> HOST_NAMES = new ConcurrentHashMap<>();
+
+    private static final BigInteger MURMUR3_RING_START = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger MURMUR3_RING_SIZE = BigInteger.ONE.shiftLeft(64);
+    private static final BigInteger RANDOM_RING_SIZE = BigInteger.ONE.shiftLeft(127);
+
     /**
      * private constructor.
      */
@@ -94,7 +116,7 @@ public class RangeUtils {
                                         }
                                 );
 
-                        return Pair.create(host.getHostName(), sortedTokens);
+                        return Pair.create(hostName(host), sortedTokens);
                     }
                 });
 
@@ -106,115 +128,251 @@ public class RangeUtils {
     }
 
     /**
-     * Merges the list of tokens for each cluster machine to a single list of token ranges.
+     * Merges the tokens of the ring to a single list of token ranges.<br/>
+     * Adjacent tokens are joined in a single pass over the sorted tokens of the ring. The ring wraps around at the
+     * partitioner minimum token: the range starting at the greatest token ends at the minimum token, which starts
+     * the range ending at the smallest token.
      *
-     * @param tokens      the map of tokens for each cluster machine.
-     * @param session     the connection to the cluster.
+     * @param ring        the snapshot of the ring, holding the replicas of each range.
      * @param partitioner the partitioner used in the cluster.
-     * @param config      the Deep configuration object.
-     * @return the merged lists of tokens transformed to DeepTokenRange(s). The returned collection is shuffled.
+     * @return the merged lists of tokens transformed to DeepTokenRange(s), sorted by start token.
      */
-    private static List<DeepTokenRange> mergeTokenRanges(Map<String, Iterable<Comparable>> tokens,
-                                                         final Session session,
-                                                         final IPartitioner partitioner, final IDeepJobConfig config) {
-        final Iterable<Comparable> allRanges = Ordering.natural().sortedCopy(concat(tokens.values()));
-        final Comparable maxValue = Ordering.natural().max(allRanges);
-        final Comparable minValue = (Comparable) partitioner.minValue(maxValue.getClass()).getToken().token;
-
-        Function<Comparable, Set<DeepTokenRange>> map = new Function<Comparable, Set<DeepTokenRange>>() {
-            public Set<DeepTokenRange> apply(final Comparable elem) {
-                Comparable nextValue;
-                Comparable currValue = elem;
-
-                Set<DeepTokenRange> result = new HashSet<>();
-
-                if (currValue.equals(maxValue)) {
-
-                    result.add(new DeepTokenRange(currValue, minValue,
-                            initReplicas(currValue, session, partitioner, config)));
-                    currValue = minValue;
-
-                    nextValue = Iterables.find(allRanges, new Predicate<Comparable>() {
-                        @Override
-                        @SuppressWarnings("unchecked")
-                        public boolean apply(@Nullable Comparable input) {
-                            assert input != null;
-                            return input.compareTo(minValue) > 0;
-                        }
-                    });
+    @SuppressWarnings("unchecked")
+    static List<DeepTokenRange> mergeTokenRanges(TokenRingSnapshot ring, IPartitioner partitioner) {
+        List<Comparable> sortedTokens = ring.getTokens();
 
-                } else {
+        Comparable minToken = sortedTokens.get(0);
+        Comparable maxToken = sortedTokens.get(sortedTokens.size() - 1);
+        Comparable minValue = (Comparable) partitioner.minValue(maxToken.getClass()).getToken().token;
 
-                    int nextIdx = 1 + indexOf(allRanges, new Predicate<Comparable>() {
-                        @Override
-                        public boolean apply(@Nullable Comparable input) {
-                            assert input != null;
-                            return input.equals(elem);
-                        }
-                    });
-                    nextValue = Iterables.get(allRanges, nextIdx);
-                }
+        List<DeepTokenRange> ranges = new ArrayList<>(sortedTokens.size() + 1);
 
-                result.add(new DeepTokenRange(currValue, nextValue, initReplicas(currValue, session, partitioner,
-                        config)));
+        if (minToken.compareTo(minValue) > 0) {
+            ranges.add(new DeepTokenRange(minValue, minToken, ring.getReplicas(minToken),
+                    ring.getReplicaLocations(minToken)));
+        }
 
-                return result;
-            }
-        };
+        for (int i = 0; i < sortedTokens.size() - 1; i++) {
+            Comparable endToken = sortedTokens.get(i + 1);
+            ranges.add(new DeepTokenRange(sortedTokens.get(i), endToken, ring.getReplicas(endToken),
+                    ring.getReplicaLocations(endToken)));
+        }
 
-        return Ordering.natural().sortedCopy(concat(transform(allRanges, map)));
+        ranges.add(new DeepTokenRange(maxToken, minValue, ring.getReplicas(minValue),
+                ring.getReplicaLocations(minValue)));
+
+        return ranges;
     }
 
     /**
-     * Given a token, fetches the list of replica machines holding that token.
+     * Takes a snapshot of the token ring of the cluster, resolving the replicas of its ranges for the
+     * configured keyspace.
      *
-     * @param token       the token whose replicas we want to fetch.
-     * @param session     the connection to the cluster.
+     * @param config the Deep configuration object.
      * @param partitioner the partitioner used in the cluster.
-     * @param config      the Deep configuration object.
-     * @return the list of replica machines holding that token.
+     * @return a snapshot of the token ring.
      */
-    private static List<String> initReplicas(
-            final Comparable token, final Session session, final IPartitioner partitioner,
-            final IDeepJobConfig config) {
-        final AbstractType tkValidator = partitioner.getTokenValidator();
-        final Metadata metadata = session.getCluster().getMetadata();
+    public static TokenRingSnapshot getTokenRing(IDeepJobConfig config, IPartitioner partitioner) {
+        Map<String, Iterable<Comparable>> tokens = new HashMap<>();
 
-        @SuppressWarnings("unchecked")
-        Set<Host> replicas = metadata.getReplicas(config.getKeyspace(), tkValidator.decompose(token));
+        Pair<Session, String> sessionWithHost =
+                CassandraClientProvider.getSession(
+                        config.getHost(),
+                        config, false);
 
-        return Lists.newArrayList(Iterables.transform(replicas, new Function<Host, String>() {
-            @Nullable
-            @Override
-            public String apply(@Nullable Host input) {
-                assert input != null;
-                return input.getAddress().getHostName();
-            }
-        }));
+        String queryLocal = "select tokens from system.local";
+        tokens.putAll(fetchTokens(queryLocal, sessionWithHost, partitioner));
+
+        String queryPeers = "select peer, tokens from system.peers";
+        tokens.putAll(fetchTokens(queryPeers, sessionWithHost, partitioner));
+
+        Metadata metadata = sessionWithHost.left.getCluster().getMetadata();
+        KeyspaceMetadata keyspaceMetadata = metadata.getKeyspace(config.getKeyspace());
+
+        Map<String, HostLocation> hostLocations = new HashMap<>();
+        for (Host host : metadata.getAllHosts()) {
+            hostLocations.put(hostName(host.getAddress()),
+                    new HostLocation(host.getAddress(), host.getDatacenter(), host.getRack()));
+        }
+
+        return TokenRingSnapshot.build(tokens,
+                keyspaceMetadata != null ? keyspaceMetadata.getReplication() : null, hostLocations);
+    }
+
+    /**
+     * Returns the host name of the given address. Names are cached, since resolving them may require a reverse
+     * DNS lookup.
+     *
+     * @param address the address of a cluster host.
+     * @return the host name of the given address.
+     */
+    static String hostName(InetAddress address) {
+        String name = HOST_NAMES.get(address);
+
+        if (name == null) {
+            name = address.getHostName();
+            HOST_NAMES.putIfAbsent(address, name);
+        }
+
+        return name;
     }
 
     /**
-     * Returns the token ranges that will be mapped to Spark partitions.
+     * Returns the token ranges that will be mapped to Spark partitions.<br/>
+     * When splits are cached, they are only computed again if the ring has changed since they were cached.
      *
      * @param config the Deep configuration object.
      * @return the list of computed token ranges.
      */
     public static List<DeepTokenRange> getSplits(IDeepJobConfig config) {
-        Map<String, Iterable<Comparable>> tokens = new HashMap<>();
+        if (!Boolean.TRUE.equals(config.isCacheSplits())) {
+            return computeSplits(config);
+        }
+
+        Session session = CassandraClientProvider.getSession(config.getHost(), config, false).left;
+
+        String key = SplitPlanCache.key(config);
+        String ringVersion = SplitPlanCache.ringVersion(session);
+
+        List<DeepTokenRange> splits = SplitPlanCache.get(key, ringVersion, config.getSplitCacheDirectory());
+
+        if (splits == null) {
+            splits = SplitPlanCache.put(key, ringVersion, computeSplits(config), config.getSplitCacheDirectory());
+        } else {
+            LOG.debug("Using {} cached splits of {}", splits.size(), key);
+        }
+
+        return splits;
+    }
+
+    private static List<DeepTokenRange> computeSplits(IDeepJobConfig config) {
         IPartitioner partitioner = getPartitioner(config);
 
-        Pair<Session, String> sessionWithHost =
-                CassandraClientProvider.getSession(
-                        config.getHost(),
-                        config, false);
+        TokenRingSnapshot ring = getTokenRing(config, partitioner);
+        List<DeepTokenRange> ranges = mergeTokenRanges(ring, partitioner);
 
-        String queryLocal = "select tokens from system.local";
-        tokens.putAll(fetchTokens(queryLocal, sessionWithHost, partitioner));
+        if (config.getSplitSize() != Constants.DEFAULT_SPLIT_SIZE) {
+            return sizeRanges(ranges, partitioner, config);
+        }
 
-        String queryPeers = "select peer, tokens from system.peers";
-        tokens.putAll(fetchTokens(queryPeers, sessionWithHost, partitioner));
+        return splitRanges(ranges, partitioner, config.getBisectFactor());
+    }
+
+    /**
+     * Splits the given ranges into sub-ranges holding about <i>splitSize</i> rows each, as estimated by the
+     * replicas of each range through the Thrift <i>describe_splits_ex</i> call. Contiguous sub-ranges held by the
+     * same replicas are then merged as long as their estimated rows do not exceed the split size.<br/>
+     * A range is left untouched if none of its replicas is able to estimate its size.
+     *
+     * @param ranges the ranges to size, sorted by start token.
+     * @param partitioner the cluster partitioner.
+     * @param config the Deep configuration object.
+     * @return the sized ranges, sorted by start token.
+     */
+    static List<DeepTokenRange> sizeRanges(List<DeepTokenRange> ranges, IPartitioner partitioner,
+                                           IDeepJobConfig config) {
+        int splitSize = config.getSplitSize();
+        Map<String, Cassandra.Client> clients = new HashMap<>();
+        List<TTransport> transports = new ArrayList<>();
+        List<DeepTokenRange> sizedRanges = new ArrayList<>();
+
+        try {
+            DeepTokenRange current = null;
+            long currentRows = 0;
+
+            for (DeepTokenRange range : ranges) {
+                for (CfSplit split : describeSplits(range, partitioner, config, clients, transports)) {
+                    Comparable start = (Comparable) partitioner.getTokenFactory().fromString(split.getStart_token())
+                            .token;
+                    Comparable end = (Comparable) partitioner.getTokenFactory().fromString(split.getEnd_token()).token;
+
+                    if (current != null && current.getEndToken().equals(start) &&
+                            current.getReplicas().equals(range.getReplicas()) &&
+                            currentRows + split.getRow_count() <= splitSize) {
+                        current.setEndToken(end);
+                        currentRows += split.getRow_count();
+                    } else {
+                        if (current != null) {
+                            sizedRanges.add(current);
+                        }
+
+                        current = new DeepTokenRange(start, end, range.getReplicas(), range.getLocations());
+                        currentRows = split.getRow_count();
+                    }
+                }
+            }
+
+            if (current != null) {
+                sizedRanges.add(current);
+            }
+        } finally {
+            for (TTransport transport : transports) {
+                transport.close();
+            }
+        }
+
+        LOG.debug("Sized {} token ranges into {} splits of about {} rows", ranges.size(), sizedRanges.size(),
+                splitSize);
+
+        return sizedRanges;
+    }
+
+    /**
+     * Asks the replicas of the given range for its sub-ranges holding about <i>splitSize</i> rows each.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<CfSplit> describeSplits(DeepTokenRange range, IPartitioner partitioner,
+                                                IDeepJobConfig config, Map<String, Cassandra.Client> clients,
+                                                List<TTransport> transports) {
+        TokenFactory tokenFactory = partitioner.getTokenFactory();
+        AbstractType tkValidator = partitioner.getTokenValidator();
+
+        String startToken = tokenFactory.toString(tokenFactory.fromByteArray(tkValidator.decompose(range
+                .getStartToken())));
+        String endToken = tokenFactory.toString(tokenFactory.fromByteArray(tkValidator.decompose(range
+                .getEndToken())));
+
+        for (String replica : datacenterReplicas(range, config.getDatacenter())) {
+            try {
+                Cassandra.Client client = clients.get(replica);
+
+                if (client == null) {
+                    client = thriftClient(replica, config, transports);
+                    clients.put(replica, client);
+                }
+
+                return client.describe_splits_ex(config.getColumnFamily(), startToken, endToken,
+                        config.getSplitSize());
+            } catch (TException e) {
+                LOG.warn("Could not estimate the size of range " + range + " on " + replica, e);
+            }
+        }
+
+        CfSplit split = new CfSplit(startToken, endToken, config.getSplitSize());
+        return Collections.singletonList(split);
+    }
+
+    /**
+     * Opens a Thrift connection to the given host, authenticated and bound to the configured keyspace.
+     */
+    private static Cassandra.Client thriftClient(String host, IDeepJobConfig config, List<TTransport> transports)
+            throws TException {
+        TTransport transport = new TFramedTransport(new TSocket(host, config.getRpcPort()));
+        transport.open();
+        transports.add(transport);
+
+        Cassandra.Client client = new Cassandra.Client(new TBinaryProtocol(transport));
+
+        if (StringUtils.isNotEmpty(config.getUsername())) {
+            Map<String, String> credentials = new HashMap<>();
+            credentials.put("username", config.getUsername());
+            credentials.put("password", config.getPassword());
+            client.login(new AuthenticationRequest(credentials));
+        }
+
+        client.set_keyspace(config.getKeyspace());
 
-        return splitRanges(mergeTokenRanges(tokens, sessionWithHost.left, partitioner, config), partitioner, config.getBisectFactor());
+        return client;
     }
 
     private static List<DeepTokenRange> splitRanges(final List<DeepTokenRange> ranges, final IPartitioner partitioner, final int bisectFactor){
@@ -222,18 +380,255 @@ public class RangeUtils {
             return ranges;
         }
 
-        Iterable<DeepTokenRange> bisectedRanges =
-                concat(transform(ranges, new Function<DeepTokenRange, List<DeepTokenRange>>() {
-            @Nullable
+        if (!isExactlySplittable(partitioner)) {
+            Iterable<DeepTokenRange> bisectedRanges =
+                    concat(transform(ranges, new Function<DeepTokenRange, List<DeepTokenRange>>() {
+                @Nullable
+                @Override
+                public List<DeepTokenRange> apply(@Nullable DeepTokenRange input) {
+                    final List<DeepTokenRange> splittedRanges = new ArrayList<>();
+                    bisectTokeRange(input, partitioner, bisectFactor, splittedRanges);
+                    return splittedRanges;
+                }
+            }));
+
+            return Lists.newArrayList(bisectedRanges);
+        }
+
+        long splits = (long) ranges.size() * bisectFactor;
+
+        if (splits > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bisect factor " + bisectFactor + " would split the " + ranges.size() +
+                    " token ranges of the ring into more than " + Integer.MAX_VALUE + " ranges");
+        }
+
+        int[] factors = apportionSplits(ranges, partitioner, (int) splits);
+
+        List<DeepTokenRange> splittedRanges = new ArrayList<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            splittedRanges.addAll(splitRange(ranges.get(i), partitioner, factors[i]));
+        }
+
+        return splittedRanges;
+    }
+
+    /**
+     * Distributes the given number of splits among the given ranges in proportion to their width, using the largest
+     * remainder method. Every range gets at least one split, the splits given to the narrowest ranges being taken
+     * from the ranges holding the most, so the total is kept unless it is lower than the number of ranges.
+     *
+     * @param ranges the token ranges.
+     * @param partitioner the cluster partitioner, supporting exact splits.
+     * @param splits the total number of splits.
+     * @return the number of splits of each range.
+     */
+    static int[] apportionSplits(List<DeepTokenRange> ranges, IPartitioner partitioner, int splits) {
+        BigInteger[] widths = new BigInteger[ranges.size()];
+        BigInteger totalWidth = BigInteger.ZERO;
+
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = width(ranges.get(i), partitioner);
+            totalWidth = totalWidth.add(widths[i]);
+        }
+
+        int[] factors = new int[widths.length];
+        final BigInteger[] remainders = new BigInteger[widths.length];
+        Integer[] byRemainder = new Integer[widths.length];
+        int assigned = 0;
+
+        for (int i = 0; i < widths.length; i++) {
+            BigInteger[] quota = widths[i].multiply(BigInteger.valueOf(splits)).divideAndRemainder(totalWidth);
+
+            factors[i] = quota[0].intValue();
+            remainders[i] = quota[1];
+            byRemainder[i] = i;
+            assigned += factors[i];
+        }
+
+        Arrays.sort(byRemainder, new Comparator<Integer>() {
             @Override
-            public List<DeepTokenRange> apply(@Nullable DeepTokenRange input) {
-                final List<DeepTokenRange> splittedRanges = new ArrayList<>();
-                bisectTokeRange(input, partitioner, bisectFactor, splittedRanges);
-                return splittedRanges;
+            public int compare(Integer i1, Integer i2) {
+                return remainders[i2].compareTo(remainders[i1]);
+            }
+        });
+
+        for (int i = 0; i < splits - assigned; i++) {
+            factors[byRemainder[i]]++;
+        }
+
+        int excess = -splits;
+        for (int i = 0; i < factors.length; i++) {
+            factors[i] = Math.max(1, factors[i]);
+            excess += factors[i];
+        }
+
+        if (excess > 0) {
+            final int[] counts = factors;
+            PriorityQueue<Integer> bySplits = new PriorityQueue<>(factors.length, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer i1, Integer i2) {
+                    return counts[i2] - counts[i1];
+                }
+            });
+
+            for (int i = 0; i < factors.length; i++) {
+                bySplits.add(i);
             }
-        }));
 
-        return Lists.newArrayList(bisectedRanges);
+            while (excess > 0 && factors[bySplits.peek()] > 1) {
+                int i = bySplits.poll();
+                factors[i]--;
+                excess--;
+                bySplits.add(i);
+            }
+        }
+
+        return factors;
+    }
+
+    /**
+     * Groups the given token ranges into about <i>partitionCount</i> lists of ranges held by the same replicas.
+     * The ranges of each replica set are given a share of the partitions proportional to their number, of at least
+     * one partition, and are evenly distributed among them keeping their order.<br/>
+     * Replica sets are told apart by identity: the ranges are expected to share the replica lists interned by
+     * {@link TokenRingSnapshot}, as the ranges returned by {@link #getSplits(IDeepJobConfig)} do.
+     *
+     * @param ranges the token ranges to group.
+     * @param partitionCount the target number of groups, {@link Constants#DEFAULT_PARTITION_COUNT} to leave each
+     *                       range in its own group.
+     * @return the groups of token ranges.
+     */
+    public static List<List<DeepTokenRange>> groupRanges(List<DeepTokenRange> ranges, int partitionCount) {
+        List<List<DeepTokenRange>> groups = new ArrayList<>();
+
+        if (partitionCount == Constants.DEFAULT_PARTITION_COUNT || partitionCount >= ranges.size()) {
+            for (DeepTokenRange range : ranges) {
+                groups.add(Collections.singletonList(range));
+            }
+
+            return groups;
+        }
+
+        Map<List<String>, List<DeepTokenRange>> replicaSetRanges = new IdentityHashMap<>();
+        List<List<DeepTokenRange>> orderedSetRanges = new ArrayList<>();
+
+        for (DeepTokenRange range : ranges) {
+            List<DeepTokenRange> setRanges = replicaSetRanges.get(range.getReplicas());
+
+            if (setRanges == null) {
+                setRanges = new ArrayList<>();
+                replicaSetRanges.put(range.getReplicas(), setRanges);
+                orderedSetRanges.add(setRanges);
+            }
+
+            setRanges.add(range);
+        }
+
+        for (List<DeepTokenRange> setRanges : orderedSetRanges) {
+            int size = setRanges.size();
+            int groupCount = (int) Math.max(1, Math.round((double) size * partitionCount / ranges.size()));
+
+            for (int i = 0; i < groupCount; i++) {
+                groups.add(new ArrayList<>(setRanges.subList(i * size / groupCount, (i + 1) * size / groupCount)));
+            }
+        }
+
+        LOG.debug("Grouped {} token ranges into {} partitions", ranges.size(), groups.size());
+
+        return groups;
+    }
+
+    /**
+     * Splits the given token range into <i>factor</i> contiguous sub-ranges holding the same replicas.<br/>
+     * Ranges of the Murmur3 and Random partitioners are cut into sub-ranges of equal width, computed exactly, which
+     * are never empty: ranges narrower than the factor are split in as many sub-ranges as tokens they hold. Ranges of
+     * any other partitioner are recursively bisected, so the factor should be a power of two.
+     *
+     * @param range the token range to split.
+     * @param partitioner the cluster partitioner.
+     * @param factor the number of sub-ranges.
+     * @return the list of sub-ranges, in token order.
+     */
+    public static List<DeepTokenRange> splitRange(DeepTokenRange range, IPartitioner partitioner, int factor) {
+        List<DeepTokenRange> subRanges = new ArrayList<>();
+
+        if (factor <= 1) {
+            subRanges.add(range);
+        } else if (isExactlySplittable(partitioner)) {
+            cutTokenRange(range, partitioner, factor, subRanges);
+        } else {
+            bisectTokeRange(range, partitioner, factor, subRanges);
+        }
+
+        return subRanges;
+    }
+
+    /**
+     * Returns whether the ranges of the given partitioner can be split in any number of sub-ranges of equal width,
+     * which is the case of the partitioners using numeric tokens.
+     *
+     * @param partitioner the cluster partitioner.
+     * @return true if the tokens of the partitioner are numeric.
+     */
+    public static boolean isExactlySplittable(IPartitioner partitioner) {
+        return partitioner instanceof Murmur3Partitioner || partitioner instanceof RandomPartitioner;
+    }
+
+    private static void cutTokenRange(DeepTokenRange range, IPartitioner partitioner, int factor,
+                                      List<DeepTokenRange> accumulator) {
+        BigInteger start = offset(range.getStartToken(), partitioner);
+        BigInteger width = width(range, partitioner);
+        BigInteger pieces = width.min(BigInteger.valueOf(factor));
+
+        Comparable pieceStart = range.getStartToken();
+
+        for (BigInteger i = BigInteger.ONE; i.compareTo(pieces) < 0; i = i.add(BigInteger.ONE)) {
+            Comparable pieceEnd = token(start.add(width.multiply(i).divide(pieces)), partitioner);
+
+            accumulator.add(new DeepTokenRange(pieceStart, pieceEnd, range.getReplicas(), range.getLocations()));
+            pieceStart = pieceEnd;
+        }
+
+        accumulator.add(new DeepTokenRange(pieceStart, range.getEndToken(), range.getReplicas(),
+                range.getLocations()));
+    }
+
+    /*
+     * Numeric ring of the partitioners supporting exact splits: the smallest token and the number of tokens.
+     */
+    private static BigInteger ringStart(IPartitioner partitioner) {
+        return partitioner instanceof Murmur3Partitioner ? MURMUR3_RING_START : BigInteger.ZERO;
+    }
+
+    private static BigInteger ringSize(IPartitioner partitioner) {
+        return partitioner instanceof Murmur3Partitioner ? MURMUR3_RING_SIZE : RANDOM_RING_SIZE;
+    }
+
+    /*
+     * Distance from the start of the ring to the given token. The minimum token of the Random partitioner, which is
+     * lower than any other token, is mapped to the start of the ring.
+     */
+    private static BigInteger offset(Comparable token, IPartitioner partitioner) {
+        BigInteger value = token instanceof Long ? BigInteger.valueOf((Long) token) : (BigInteger) token;
+
+        return value.subtract(ringStart(partitioner)).max(BigInteger.ZERO);
+    }
+
+    private static Comparable token(BigInteger offset, IPartitioner partitioner) {
+        BigInteger value = offset.mod(ringSize(partitioner)).add(ringStart(partitioner));
+
+        return partitioner instanceof Murmur3Partitioner ? (Comparable) value.longValue() : value;
+    }
+
+    /*
+     * Number of tokens of the given range, which may wrap around the ring. A range starting and ending at the same
+     * token covers the whole ring.
+     */
+    private static BigInteger width(DeepTokenRange range, IPartitioner partitioner) {
+        BigInteger width = offset(range.getEndToken(), partitioner).subtract(offset(range.getStartToken(),
+                partitioner));
+
+        return width.signum() > 0 ? width : width.add(ringSize(partitioner));
     }
 
     private static void bisectTokeRange(
@@ -247,8 +642,10 @@ public class RangeUtils {
 
         Comparable midpoint = (Comparable) tkValidator.compose(tkValidator.fromString(midToken.toString()));
 
-        DeepTokenRange left = new DeepTokenRange(range.getStartToken(), midpoint, range.getReplicas());
-        DeepTokenRange right = new DeepTokenRange(midpoint, range.getEndToken(), range.getReplicas());
+        DeepTokenRange left =
+                new DeepTokenRange(range.getStartToken(), midpoint, range.getReplicas(), range.getLocations());
+        DeepTokenRange right =
+                new DeepTokenRange(midpoint, range.getEndToken(), range.getReplicas(), range.getLocations());
 
         if (bisectFactor / 2 <= 1) {
             accumulator.add(left);
@@ -259,6 +656,33 @@ public class RangeUtils {
         }
     }
 
+    /**
+     * Returns the replicas of the given range belonging to the given datacenter.
+     *
+     * @param range the token range.
+     * @param datacenter the datacenter, null to return all the replicas of the range.
+     * @return the replicas of the range belonging to the datacenter, in the same order. All the replicas of the range
+     * are returned if their location is unknown.
+     */
+    public static List<String> datacenterReplicas(DeepTokenRange range, String datacenter) {
+        Map<String, HostLocation> locations = range.getLocations();
+
+        if (datacenter == null || locations == null) {
+            return range.getReplicas();
+        }
+
+        List<String> replicas = new ArrayList<>(range.getReplicas().size());
+        for (String replica : range.getReplicas()) {
+            HostLocation location = locations.get(replica);
+
+            if (location != null && datacenter.equals(location.getDatacenter())) {
+                replicas.add(replica);
+            }
+        }
+
+        return replicas;
+    }
+
     /**
      * Creates a new instance of the cassandra partitioner configured in the configuration object.
      * @param config the Deep configuration object.
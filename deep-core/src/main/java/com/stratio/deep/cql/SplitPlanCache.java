@@ -0,0 +1,217 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.stratio.deep.cql;
+
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.stratio.deep.config.IDeepJobConfig;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache of the splits computed for a table, held in memory and optionally persisted to a local directory.<br/>
+ * Splits are cached together with a version of the ring, built from the schema version and tokens of every host of
+ * the cluster, and are only returned while the ring keeps the same version.
+ */
+final class SplitPlanCache {
+    private static final Logger LOG = LoggerFactory.getLogger(SplitPlanCache.class);
+
+    private static final String FILE_SUFFIX = ".splits";
+
+    private static final ConcurrentMap<String, Plan> PLANS = new ConcurrentHashMap<>();
+
+    /**
+     * Splits computed for a version of the ring.
+     */
+    static final class Plan implements Serializable {
+        private static final long serialVersionUID = 4183265723587034572L;
+
+        private final String ringVersion;
+        private final List<DeepTokenRange> splits;
+
+        Plan(String ringVersion, List<DeepTokenRange> splits) {
+            this.ringVersion = ringVersion;
+            this.splits = splits;
+        }
+    }
+
+    /**
+     * private constructor.
+     */
+    private SplitPlanCache() {
+    }
+
+    /**
+     * Returns the key of the splits computed with the given configuration: the cluster, the table, the partitioner and
+     * the split settings.
+     *
+     * @param config the Deep configuration object.
+     * @return the cache key.
+     */
+    static String key(IDeepJobConfig config) {
+        return StringUtils.join(new Object[]{config.getHost(), config.getCqlPort(), config.getKeyspace(),
+                config.getColumnFamily(), config.getPartitionerClassName(), config.getSplitSize(),
+                config.getBisectFactor()}, ':');
+    }
+
+    /**
+     * Computes the current version of the ring. Changes in the schema or in the tokens owned by any host of the
+     * cluster, as well as hosts joining or leaving it, produce a different version.
+     *
+     * @param session a session connected to the cluster.
+     * @return the version of the ring.
+     */
+    static String ringVersion(Session session) {
+        SortedMap<String, String> hosts = new TreeMap<>();
+
+        Row local = session.execute("select schema_version, tokens from system.local").one();
+        hosts.put("local", hostVersion(local));
+
+        for (Row row : session.execute("select peer, schema_version, tokens from system.peers")) {
+            hosts.put(row.getInet("peer").getHostAddress(), hostVersion(row));
+        }
+
+        return Hashing.md5().hashBytes(hosts.toString().getBytes(Charsets.UTF_8)).toString();
+    }
+
+    private static String hostVersion(Row row) {
+        return row.getUUID("schema_version") + "=" + new TreeSet<>(row.getSet("tokens", String.class));
+    }
+
+    /**
+     * Returns the splits cached under the given key, looking them up in the cache directory if they are not held in
+     * memory.
+     *
+     * @param key the cache key.
+     * @param ringVersion the current version of the ring.
+     * @param directory the cache directory, null if splits are only held in memory.
+     * @return the cached splits, or null if there are no splits cached for the current version of the ring.
+     */
+    static List<DeepTokenRange> get(String key, String ringVersion, String directory) {
+        Plan plan = PLANS.get(key);
+
+        if (plan == null && directory != null) {
+            plan = read(file(directory, key));
+
+            if (plan != null) {
+                PLANS.putIfAbsent(key, plan);
+            }
+        }
+
+        if (plan == null) {
+            return null;
+        }
+
+        if (!plan.ringVersion.equals(ringVersion)) {
+            LOG.info("Ring changed, discarding cached splits of {}", key);
+            PLANS.remove(key, plan);
+            return null;
+        }
+
+        return plan.splits;
+    }
+
+    /**
+     * Caches the given splits under the given key.
+     *
+     * @param key the cache key.
+     * @param ringVersion the version of the ring the splits have been computed for.
+     * @param splits the computed splits.
+     * @param directory the cache directory, null if splits are only held in memory.
+     * @return the cached splits.
+     */
+    static List<DeepTokenRange> put(String key, String ringVersion, List<DeepTokenRange> splits, String directory) {
+        Plan plan = new Plan(ringVersion, Collections.unmodifiableList(new ArrayList<>(splits)));
+
+        PLANS.put(key, plan);
+
+        if (directory != null) {
+            write(file(directory, key), plan);
+        }
+
+        return plan.splits;
+    }
+
+    /**
+     * Removes all the splits held in memory.
+     */
+    static void clear() {
+        PLANS.clear();
+    }
+
+    private static File file(String directory, String key) {
+        return new File(directory, Hashing.md5().hashBytes(key.getBytes(Charsets.UTF_8)).toString() + FILE_SUFFIX);
+    }
+
+    private static Plan read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        ObjectInputStream in = null;
+        try {
+            in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(file)));
+            return (Plan) in.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            LOG.warn("Cannot read cached splits from " + file, e);
+            return null;
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /*
+     * Writes to a temporary file which is then renamed, so that concurrent readers never see a partial plan.
+     */
+    private static void write(File file, Plan plan) {
+        File directory = file.getParentFile();
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            LOG.warn("Cannot create split cache directory " + directory);
+            return;
+        }
+
+        File tmp = new File(directory, file.getName() + "." + UUID.randomUUID());
+
+        ObjectOutputStream out = null;
+        try {
+            out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            out.writeObject(plan);
+            out.close();
+            out = null;
+
+            if (!tmp.renameTo(file)) {
+                LOG.warn("Cannot write cached splits to " + file);
+            }
+        } catch (IOException e) {
+            LOG.warn("Cannot write cached splits to " + file, e);
+        } finally {
+            IOUtils.closeQuietly(out);
+            tmp.delete();
+        }
+    }
+}
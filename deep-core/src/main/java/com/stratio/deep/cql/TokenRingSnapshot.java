@@ -0,0 +1,349 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.stratio.deep.cql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the token ring of a cluster, holding the replicas of every token range for the replication
+ * settings of a keyspace.
+ * <p>
+ * Replicas are resolved for all the ranges in a single pass over the ring, the same way Cassandra does: walking
+ * the ring clockwise from the token ending the range, until enough distinct hosts have been found. Both
+ * <i>SimpleStrategy</i> and <i>NetworkTopologyStrategy</i> are supported. As in Cassandra, the replicas of a
+ * datacenter are placed on distinct racks first, hosts of racks already holding a replica being skipped until every
+ * rack of the datacenter holds one. The primary replica is the only replica of the ranges of keyspaces using any
+ * other strategy, a warning being logged.
+ * </p>
+ * <p>
+ * Identical replica lists are interned: ranges held by the same replicas share the same list instance, identified
+ * by its replica set id, and the same map holding the locations of these replicas.
+ * </p>
+ */
+public final class TokenRingSnapshot {
+    private static final Logger LOG = LoggerFactory.getLogger(TokenRingSnapshot.class);
+
+    private static final String SIMPLE_STRATEGY = "SimpleStrategy";
+    private static final String NETWORK_TOPOLOGY_STRATEGY = "NetworkTopologyStrategy";
+    private static final String REPLICATION_CLASS = "class";
+    private static final String REPLICATION_FACTOR = "replication_factor";
+
+    private final Comparable[] tokens;
+    private final int[] replicaSetIds;
+    private final List<List<String>> replicaSets;
+    private final List<Map<String, HostLocation>> replicaSetLocations;
+    private final Map<String, HostLocation> locations;
+
+    private TokenRingSnapshot(Comparable[] tokens, int[] replicaSetIds, List<List<String>> replicaSets,
+                              List<Map<String, HostLocation>> replicaSetLocations,
+                              Map<String, HostLocation> locations) {
+        this.tokens = tokens;
+        this.replicaSetIds = replicaSetIds;
+        this.replicaSets = replicaSets;
+        this.replicaSetLocations = replicaSetLocations;
+        this.locations = locations;
+    }
+
+    /**
+     * Builds a new snapshot of the ring.
+     *
+     * @param hostTokens      the tokens owned by each host.
+     * @param replication     the replication options of the keyspace, as returned by the driver metadata.
+     * @param hostLocations   the location of each host, only required by <i>NetworkTopologyStrategy</i>.
+     * @return a new snapshot of the ring.
+     */
+    @SuppressWarnings("unchecked")
+    public static TokenRingSnapshot build(Map<String, Iterable<Comparable>> hostTokens, Map<String, String> replication,
+                                          Map<String, HostLocation> hostLocations) {
+        Map<String, HostLocation> locations = new HashMap<>();
+
+        if (hostLocations != null) {
+            locations.putAll(hostLocations);
+        }
+
+        Map<Comparable, String> owners = new HashMap<>();
+        for (Map.Entry<String, Iterable<Comparable>> entry : hostTokens.entrySet()) {
+            for (Comparable token : entry.getValue()) {
+                owners.put(token, entry.getKey());
+            }
+        }
+
+        Comparable[] tokens = owners.keySet().toArray(new Comparable[owners.size()]);
+        Arrays.sort(tokens);
+
+        String[] tokenOwners = new String[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            tokenOwners[i] = owners.get(tokens[i]);
+        }
+
+        Map<String, Integer> replicationFactors = replicationFactors(replication, hostTokens.keySet(), locations);
+        Map<String, Integer> datacenterRacks = datacenterRacks(hostTokens.keySet(), locations);
+
+        int[] replicaSetIds = new int[tokens.length];
+        Map<List<String>, Integer> internedReplicaSets = new LinkedHashMap<>();
+
+        for (int i = 0; i < tokens.length; i++) {
+            List<String> replicas = replicas(i, tokenOwners, replicationFactors, locations, datacenterRacks);
+
+            Integer id = internedReplicaSets.get(replicas);
+            if (id == null) {
+                id = internedReplicaSets.size();
+                internedReplicaSets.put(replicas, id);
+            }
+
+            replicaSetIds[i] = id;
+        }
+
+        List<List<String>> replicaSets = new ArrayList<>(internedReplicaSets.size());
+        List<Map<String, HostLocation>> replicaSetLocations = new ArrayList<>(internedReplicaSets.size());
+
+        for (List<String> replicas : internedReplicaSets.keySet()) {
+            Map<String, HostLocation> replicaLocations = new HashMap<>();
+
+            for (String replica : replicas) {
+                HostLocation location = locations.get(replica);
+
+                if (location != null) {
+                    replicaLocations.put(replica, location);
+                }
+            }
+
+            replicaSets.add(Collections.unmodifiableList(replicas));
+            replicaSetLocations.add(Collections.unmodifiableMap(replicaLocations));
+        }
+
+        return new TokenRingSnapshot(tokens, replicaSetIds, Collections.unmodifiableList(replicaSets),
+                Collections.unmodifiableList(replicaSetLocations), Collections.unmodifiableMap(locations));
+    }
+
+    /**
+     * Returns the number of replicas to place on each datacenter, capped to the number of hosts of the datacenter.
+     * The null key holds the replication factor of the whole ring when replicas are not placed by datacenter.
+     */
+    private static Map<String, Integer> replicationFactors(Map<String, String> replication, Set<String> hosts,
+                                                           Map<String, HostLocation> locations) {
+        Map<String, Integer> factors = new HashMap<>();
+        String strategy = replication != null ? replication.get(REPLICATION_CLASS) : null;
+
+        if (strategy != null && strategy.endsWith(NETWORK_TOPOLOGY_STRATEGY)) {
+            Map<String, Integer> datacenterHosts = new HashMap<>();
+            for (String host : hosts) {
+                String datacenter = datacenter(host, locations);
+                Integer count = datacenterHosts.get(datacenter);
+                datacenterHosts.put(datacenter, count == null ? 1 : count + 1);
+            }
+
+            for (Map.Entry<String, String> option : replication.entrySet()) {
+                Integer count = datacenterHosts.get(option.getKey());
+
+                if (!REPLICATION_CLASS.equals(option.getKey()) && count != null) {
+                    factors.put(option.getKey(), Math.min(Integer.parseInt(option.getValue()), count));
+                }
+            }
+        } else if (strategy != null && strategy.endsWith(SIMPLE_STRATEGY)) {
+            factors.put(null, Math.min(Integer.parseInt(replication.get(REPLICATION_FACTOR)), hosts.size()));
+        } else {
+            LOG.warn("Unsupported replication strategy " + strategy + ", only the primary replica of each token " +
+                    "range will be used");
+            factors.put(null, 1);
+        }
+
+        return factors;
+    }
+
+    /**
+     * Returns the number of distinct racks of each datacenter.
+     */
+    private static Map<String, Integer> datacenterRacks(Set<String> hosts, Map<String, HostLocation> locations) {
+        Map<String, Set<String>> racks = new HashMap<>();
+
+        for (String host : hosts) {
+            HostLocation location = locations.get(host);
+            String datacenter = datacenter(host, locations);
+            Set<String> datacenterRacks = racks.get(datacenter);
+
+            if (datacenterRacks == null) {
+                datacenterRacks = new HashSet<>();
+                racks.put(datacenter, datacenterRacks);
+            }
+
+            datacenterRacks.add(location != null ? location.getRack() : null);
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : racks.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().size());
+        }
+
+        return counts;
+    }
+
+    private static String datacenter(String host, Map<String, HostLocation> locations) {
+        HostLocation location = locations.get(host);
+        return location != null ? location.getDatacenter() : null;
+    }
+
+    /**
+     * Walks the ring from the given token until the replicas of every datacenter have been found. Within a
+     * datacenter, hosts of a rack already holding a replica are skipped until every rack holds one, and are then
+     * placed in the order they have been walked.
+     */
+    private static List<String> replicas(int tokenIndex, String[] tokenOwners, Map<String, Integer> replicationFactors,
+                                         Map<String, HostLocation> locations, Map<String, Integer> datacenterRacks) {
+        boolean byDatacenter = !replicationFactors.containsKey(null);
+        int pending = 0;
+        for (Integer factor : replicationFactors.values()) {
+            pending += factor;
+        }
+
+        List<String> replicas = new ArrayList<>(pending);
+        Set<String> visited = new HashSet<>();
+        Map<String, Integer> placed = new HashMap<>();
+        Map<String, Set<String>> seenRacks = new HashMap<>();
+        Map<String, List<String>> skipped = new HashMap<>();
+
+        for (int i = 0; i < tokenOwners.length && pending > 0; i++) {
+            String host = tokenOwners[(tokenIndex + i) % tokenOwners.length];
+
+            if (!visited.add(host)) {
+                continue;
+            }
+
+            String datacenter = byDatacenter ? datacenter(host, locations) : null;
+            Integer factor = replicationFactors.get(datacenter);
+            Integer count = placed.get(datacenter);
+            count = count == null ? 0 : count;
+
+            if (factor == null || count >= factor) {
+                continue;
+            }
+
+            List<String> candidates = Collections.singletonList(host);
+
+            if (byDatacenter) {
+                Set<String> racks = seenRacks.get(datacenter);
+                List<String> skippedHosts = skipped.get(datacenter);
+
+                if (racks == null) {
+                    racks = new HashSet<>();
+                    skippedHosts = new ArrayList<>();
+                    seenRacks.put(datacenter, racks);
+                    skipped.put(datacenter, skippedHosts);
+                }
+
+                if (racks.size() < datacenterRacks.get(datacenter)) {
+                    HostLocation location = locations.get(host);
+
+                    if (!racks.add(location.getRack())) {
+                        skippedHosts.add(host);
+                        continue;
+                    }
+
+                    if (racks.size() == datacenterRacks.get(datacenter)) {
+                        /* every rack holds a replica, the skipped hosts can now be placed */
+                        candidates = new ArrayList<>(skippedHosts.size() + 1);
+                        candidates.add(host);
+                        candidates.addAll(skippedHosts);
+                    }
+                }
+            }
+
+            for (int j = 0; j < candidates.size() && count < factor; j++) {
+                replicas.add(candidates.get(j));
+                count++;
+                pending--;
+            }
+
+            placed.put(datacenter, count);
+        }
+
+        return replicas;
+    }
+
+    /**
+     * @return the sorted tokens of the ring.
+     */
+    public List<Comparable> getTokens() {
+        return Collections.unmodifiableList(Arrays.asList(tokens));
+    }
+
+    /**
+     * Returns the id of the replica set holding the range ending at the given token, which is the replica set of
+     * the first token of the ring not lower than the given one.
+     *
+     * @param token the end token of a range.
+     * @return the id of the replica set of the range, an index of {@link #getReplicaSets()}.
+     */
+    @SuppressWarnings("unchecked")
+    public int getReplicaSetId(Comparable token) {
+        int index = Arrays.binarySearch(tokens, token);
+
+        if (index < 0) {
+            index = -index - 1;
+        }
+
+        return replicaSetIds[index == tokens.length ? 0 : index];
+    }
+
+    /**
+     * Returns the replicas holding the range ending at the given token, primary replica first.
+     *
+     * @param token the end token of a range.
+     * @return the interned list of replicas of the range.
+     */
+    public List<String> getReplicas(Comparable token) {
+        return replicaSets.get(getReplicaSetId(token));
+    }
+
+    /**
+     * Returns the location of the replicas holding the range ending at the given token. Unlike
+     * {@link #getLocations()}, its size only depends on the replication factor, so it can be shipped along with
+     * every range.
+     *
+     * @param token the end token of a range.
+     * @return the interned location of each known replica of the range, indexed by host name.
+     */
+    public Map<String, HostLocation> getReplicaLocations(Comparable token) {
+        return replicaSetLocations.get(getReplicaSetId(token));
+    }
+
+    /**
+     * @return the distinct replica sets of the ring, indexed by replica set id.
+     */
+    public List<List<String>> getReplicaSets() {
+        return replicaSets;
+    }
+
+    /**
+     * @return the location of each host of the ring, indexed by host name.
+     */
+    public Map<String, HostLocation> getLocations() {
+        return locations;
+    }
+}
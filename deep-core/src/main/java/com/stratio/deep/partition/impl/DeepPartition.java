@@ -19,8 +19,12 @@ package com.stratio.deep.partition.impl;
 import com.stratio.deep.cql.DeepTokenRange;
 import org.apache.spark.Partition;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
- * Object that carries spark's partition information.
+ * Object that carries spark's partition information.<br/>
+ * A partition maps one or more token ranges, held by the same replicas, which are scanned back to back.
  */
 public class DeepPartition implements Partition {
 
@@ -39,11 +43,11 @@ public class DeepPartition implements Partition {
     private final int idx;
 
     /**
-     * Cassandra's split object, maintains information of
-     * the start and end token of the cassandra split mapped
-     * by this partition and its list of replicas.
+     * Cassandra's split objects, maintain information of
+     * the start and end token of the cassandra splits mapped
+     * by this partition and their list of replicas.
      */
-    private final DeepTokenRange splitWrapper;
+    private final List<DeepTokenRange> ranges;
 
     /**
      * Public constructor.
@@ -53,8 +57,22 @@ public class DeepPartition implements Partition {
      * @param range the deep token range to wrap.
      */
     public DeepPartition(int rddId, int idx, DeepTokenRange range) {
+        this(rddId, idx, Collections.singletonList(range));
+    }
+
+    /**
+     * Public constructor.
+     *
+     * @param rddId the rdd id.
+     * @param idx the index of the new partition (relative to the provided rdd id).
+     * @param ranges the deep token ranges to wrap, all of them held by the same replicas.
+     */
+    public DeepPartition(int rddId, int idx, List<DeepTokenRange> ranges) {
+        if (ranges.isEmpty()) {
+            throw new IllegalArgumentException("A partition should wrap at least one token range");
+        }
 
-        this.splitWrapper = range;
+        this.ranges = Collections.unmodifiableList(ranges);
         this.rddId = rddId;
         this.idx = idx;
     }
@@ -96,12 +114,30 @@ public class DeepPartition implements Partition {
     }
 
     /**
-     * Returns the Cassandra split
+     * Returns the Cassandra split, the first one if this partition wraps many of them.
      *
      * @return the wrapped token range.
      */
     public DeepTokenRange splitWrapper() {
-        return this.splitWrapper;
+        return this.ranges.get(0);
+    }
+
+    /**
+     * Returns the Cassandra splits wrapped by this partition, in scan order.
+     *
+     * @return the wrapped token ranges.
+     */
+    public List<DeepTokenRange> getRanges() {
+        return this.ranges;
+    }
+
+    /**
+     * Returns the replicas holding the token ranges of this partition.
+     *
+     * @return the list of replicas.
+     */
+    public List<String> getReplicas() {
+        return this.ranges.get(0).getReplicas();
     }
 
     /**
@@ -112,7 +148,7 @@ public class DeepPartition implements Partition {
         return "DeepPartition{" +
                 "rddId=" + rddId +
                 ", idx=" + idx +
-                ", splitWrapper=" + splitWrapper +
+                ", ranges=" + ranges +
                 '}';
     }
 }
@@ -16,29 +16,66 @@
 
 package com.stratio.deep.partition.impl;
 
+import com.stratio.deep.cql.HostLocation;
 import com.stratio.deep.exception.DeepIOException;
 import com.stratio.deep.exception.DeepInstantiationException;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Given a list of names of machines, this comparator tries as much as he can
  * to put the hostname of the local machine on the first position of the list.
+ * <p>
+ * When the location of the cluster hosts is known, the remaining machines are ranked by locality: hosts on the same
+ * rack as the local machine come first, followed by hosts on the same datacenter.
+ * </p>
+ * <p>
+ * Names are resolved at most once per JVM: addresses of the cluster hosts are taken from their location, other names
+ * are resolved the first time they are seen and kept in a shared address table.
+ * </p>
  */
 public class DeepPartitionLocationComparator implements Comparator<String> {
+    private static final int LOOPBACK = 0;
+    private static final int LOCAL = 1;
+    private static final int SAME_RACK = 2;
+    private static final int SAME_DATACENTER = 3;
+    private static final int REMOTE = 4;
+
+    /*
+     * Resolved addresses, indexed by name.
+     */
+    private static final ConcurrentMap<String, InetAddress> ADDRESSES = new ConcurrentHashMap<>();
+
+    private static volatile InetAddress localHost;
+
     private final InetAddress hostname;
+    private final Map<String, HostLocation> locations;
+    private final HostLocation localLocation;
+    private final Map<String, Integer> ranks = new HashMap<>();
 
     /**
      * Default constructor. Automatically tries to resolve the name of the local machine.
      */
     public DeepPartitionLocationComparator() {
-        try {
-            this.hostname = InetAddress.getLocalHost();
-        } catch (UnknownHostException e) {
-            throw new DeepInstantiationException(e);
-        }
+        this(Collections.<String, HostLocation>emptyMap());
+    }
+
+    /**
+     * Constructs a comparator ranking the given locations with respect to the local machine, whose name is
+     * automatically resolved.
+     *
+     * @param locations the known host locations, indexed by host name. Locations are ranked by rack and datacenter
+     *                  only if the location of the local machine is among them.
+     */
+    public DeepPartitionLocationComparator(Map<String, HostLocation> locations) {
+        this(localHost(), locations);
     }
 
     /**
@@ -46,41 +83,108 @@ public class DeepPartitionLocationComparator implements Comparator<String> {
      * @param hostname the host name of the current machine.
      */
     public DeepPartitionLocationComparator(String hostname) {
+        this(hostname, Collections.<String, HostLocation>emptyMap());
+    }
+
+    /**
+     * Constructs a comparator ranking the given locations with respect to the machine with the given name.
+     *
+     * @param hostname  the host name of the current machine.
+     * @param locations the known host locations, indexed by host name. Locations are ranked by rack and datacenter
+     *                  only if the location of the local machine is among them.
+     */
+    public DeepPartitionLocationComparator(String hostname, Map<String, HostLocation> locations) {
+        this(resolveLocal(hostname), locations);
+    }
+
+    private DeepPartitionLocationComparator(InetAddress hostname, Map<String, HostLocation> locations) {
+        this.hostname = hostname;
+        this.locations = locations != null ? locations : Collections.<String, HostLocation>emptyMap();
+
+        HostLocation local = null;
+        for (HostLocation location : this.locations.values()) {
+            if (hostname.equals(location.getAddress())) {
+                local = location;
+                break;
+            }
+        }
+        this.localLocation = local;
+    }
+
+    private static InetAddress localHost() {
+        if (localHost == null) {
+            try {
+                localHost = InetAddress.getLocalHost();
+            } catch (UnknownHostException e) {
+                throw new DeepInstantiationException(e);
+            }
+        }
+
+        return localHost;
+    }
+
+    private static InetAddress resolveLocal(String hostname) {
         try {
-            this.hostname = InetAddress.getByName(hostname);
+            return resolve(hostname);
         } catch (UnknownHostException e) {
             throw new DeepInstantiationException(e);
         }
     }
 
+    private static InetAddress resolve(String name) throws UnknownHostException {
+        InetAddress address = ADDRESSES.get(name);
+
+        if (address == null) {
+            address = InetAddress.getByName(name);
+            ADDRESSES.putIfAbsent(name, address);
+        }
+
+        return address;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public int compare(String loc1, String loc2) {
-        int result = 0;
+        return Integer.compare(rank(loc1), rank(loc2));
+    }
 
-        try {
-            InetAddress addr1 = InetAddress.getByName(loc1);
-            InetAddress addr2 = InetAddress.getByName(loc2);
-
-            if (addr1 == addr2) {
-                result = 0;
-            } else if (addr1.isLoopbackAddress()) {
-                result = -1;
-            } else if (addr2.isLoopbackAddress()) {
-                result = 1;
-            } else if (addr1.getHostAddress().equals(hostname.getHostAddress())) {
-                result = -1;
-            } else if (addr2.getHostAddress().equals(hostname.getHostAddress())) {
-                result = 1;
-            }
+    private int rank(String location) {
+        Integer rank = ranks.get(location);
 
+        if (rank == null) {
+            rank = computeRank(location);
+            ranks.put(location, rank);
+        }
+
+        return rank;
+    }
+
+    private int computeRank(String location) {
+        HostLocation hostLocation = locations.get(location);
+
+        InetAddress address;
+        try {
+            address = hostLocation != null && hostLocation.getAddress() != null ?
+                    hostLocation.getAddress() : resolve(location);
         } catch (UnknownHostException e) {
             throw new DeepIOException(e);
         }
 
-        return result;
+        if (address.isLoopbackAddress()) {
+            return LOOPBACK;
+        } else if (address.getHostAddress().equals(hostname.getHostAddress())) {
+            return LOCAL;
+        } else if (localLocation == null || hostLocation == null ||
+                localLocation.getDatacenter() == null ||
+                !localLocation.getDatacenter().equals(hostLocation.getDatacenter())) {
+            return REMOTE;
+        } else if (localLocation.getRack() != null && localLocation.getRack().equals(hostLocation.getRack())) {
+            return SAME_RACK;
+        }
+
+        return SAME_DATACENTER;
     }
 
     /**
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.stratio.deep.rdd;
+
+import com.stratio.deep.config.IDeepJobConfig;
+import com.stratio.deep.cql.DeepRow;
+import com.stratio.deep.cql.DeepRowSchema;
+import com.stratio.deep.cql.IDeepRecordReader;
+import com.stratio.deep.entity.Cell;
+import com.stratio.deep.partition.impl.DeepPartition;
+import org.apache.cassandra.db.marshal.AbstractType;
+import org.apache.cassandra.db.marshal.CounterColumnType;
+import org.apache.cassandra.db.marshal.DoubleType;
+import org.apache.cassandra.db.marshal.FloatType;
+import org.apache.cassandra.db.marshal.Int32Type;
+import org.apache.cassandra.db.marshal.LongType;
+import org.apache.spark.Partition;
+import org.apache.spark.TaskContext;
+import org.apache.spark.rdd.RDD;
+import scala.Tuple2;
+import scala.collection.Iterator;
+import scala.collection.Seq;
+import scala.reflect.ClassTag$;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static scala.collection.JavaConversions.asScalaIterator;
+
+/**
+ * RDD holding, for each partition of a {@link CassandraRDD}, the partial aggregates of some numeric columns
+ * grouped by the value of another column.<br/>
+ * Values are decoded straight from the bytes returned by the record reader, without building the RDD elements.
+ * Groups are looked up by their raw bytes, so the group column is only decoded once per group and partition.<br/>
+ * Used by {@link CassandraRDD#aggregateByColumns(String, String...)}.
+ *
+ * @param <T> the type of the rows of the parent RDD.
+ * @param <K> the type of the group column.
+ */
+class CassandraAggregateRDD<T, K> extends RDD<Tuple2<K, ColumnAggregate[]>> {
+
+    private static final long serialVersionUID = -5523398771045383447L;
+
+    private final CassandraRDD<T> parent;
+
+    // configuration of the parent RDD, projected on the group and aggregated columns
+    private final IDeepJobConfig<T> config;
+
+    private final String groupColumn;
+
+    private final String[] valueColumns;
+
+    /**
+     * This constructor should not be called explicitly.<br/>
+     * Use {@link CassandraRDD#aggregateByColumns(String, String...)} instead.
+     *
+     * @param parent the RDD whose rows will be aggregated.
+     * @param config the configuration of the parent RDD, projected on the referenced columns.
+     * @param groupColumn the name of the column to group by.
+     * @param valueColumns the names of the numeric columns to aggregate.
+     */
+    @SuppressWarnings("unchecked")
+    CassandraAggregateRDD(CassandraRDD<T> parent, IDeepJobConfig<T> config, String groupColumn,
+                          String[] valueColumns) {
+        super(parent, ClassTag$.MODULE$.<Tuple2<K, ColumnAggregate[]>>apply(Tuple2.class));
+        this.parent = parent;
+        this.config = config;
+        this.groupColumn = groupColumn;
+        this.valueColumns = valueColumns;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<Tuple2<K, ColumnAggregate[]>> compute(Partition split, TaskContext ctx) {
+        DeepPartition deepPartition = (DeepPartition) split;
+
+        log().debug("Executing aggregation for split: " + deepPartition);
+
+        IDeepRecordReader recordReader = CassandraRDD.newRecordReader(config, deepPartition.getRanges(), false);
+        ctx.addOnCompleteCallback(parent.getComputeCallback(recordReader, deepPartition));
+
+        Map<String, Cell> columnDefinitions = config.columnDefinitions();
+        AbstractType<?>[] types = new AbstractType<?>[valueColumns.length];
+        boolean[] integral = new boolean[valueColumns.length];
+        for (int i = 0; i < valueColumns.length; i++) {
+            types[i] = columnDefinitions.get(valueColumns[i]).marshaller();
+            integral[i] = types[i] instanceof Int32Type || types[i] instanceof LongType ||
+                    types[i] instanceof CounterColumnType;
+        }
+
+        Map<ByteBuffer, ColumnAggregate[]> groups = new HashMap<>();
+        int groupIndex = -1;
+        int[] valueIndexes = new int[valueColumns.length];
+
+        while (recordReader.hasNext()) {
+            DeepRow row = recordReader.next();
+
+            if (groupIndex < 0) {
+                DeepRowSchema schema = row.getSchema();
+                groupIndex = schema.indexOf(groupColumn);
+                for (int i = 0; i < valueColumns.length; i++) {
+                    valueIndexes[i] = schema.indexOf(valueColumns[i]);
+                }
+            }
+
+            ByteBuffer group = row.getValue(groupIndex);
+            ColumnAggregate[] aggregates = groups.get(group);
+
+            if (aggregates == null) {
+                aggregates = new ColumnAggregate[valueColumns.length];
+                for (int i = 0; i < aggregates.length; i++) {
+                    aggregates[i] = new ColumnAggregate(integral[i]);
+                }
+
+                groups.put(group, aggregates);
+            }
+
+            for (int i = 0; i < valueIndexes.length; i++) {
+                ByteBuffer value = row.getValue(valueIndexes[i]);
+
+                if (value == null || !value.hasRemaining()) {
+                    continue;
+                }
+
+                if (integral[i]) {
+                    aggregates[i].add(toLong(types[i], value));
+                } else {
+                    aggregates[i].add(toDouble(types[i], value));
+                }
+            }
+        }
+
+        AbstractType<?> groupType = columnDefinitions.get(groupColumn).marshaller();
+        List<Tuple2<K, ColumnAggregate[]>> result = new ArrayList<>(groups.size());
+
+        for (Map.Entry<ByteBuffer, ColumnAggregate[]> entry : groups.entrySet()) {
+            K group = entry.getKey() == null ? null : (K) groupType.compose(entry.getKey());
+            result.add(new Tuple2<>(group, entry.getValue()));
+        }
+
+        return asScalaIterator(result.iterator());
+    }
+
+    /**
+     * Decodes an integral value, reading it directly from the buffer.
+     */
+    private static long toLong(AbstractType<?> type, ByteBuffer value) {
+        int position = value.position();
+
+        return type instanceof Int32Type ? value.getInt(position) : value.getLong(position);
+    }
+
+    /**
+     * Decodes a non integral numeric value, reading primitive types directly from the buffer.
+     */
+    private static double toDouble(AbstractType<?> type, ByteBuffer value) {
+        int position = value.position();
+
+        if (type instanceof DoubleType) {
+            return value.getDouble(position);
+        } else if (type instanceof FloatType) {
+            return value.getFloat(position);
+        }
+
+        return ((Number) type.compose(value)).doubleValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Partition[] getPartitions() {
+        return parent.partitions();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Seq<String> getPreferredLocations(Partition split) {
+        return parent.getPreferredLocations(split);
+    }
+}
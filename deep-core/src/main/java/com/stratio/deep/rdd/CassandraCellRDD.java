@@ -17,13 +17,22 @@
 package com.stratio.deep.rdd;
 
 import com.stratio.deep.config.IDeepJobConfig;
+import com.stratio.deep.cql.DeepRow;
+import com.stratio.deep.cql.DeepRowSchema;
 import com.stratio.deep.entity.Cell;
 import com.stratio.deep.entity.Cells;
-import org.apache.cassandra.utils.Pair;
+import com.stratio.deep.exception.DeepNoSuchFieldException;
+import com.stratio.deep.filter.FieldFilter;
+import com.stratio.deep.functions.AbstractCellsFunction;
+import org.apache.commons.lang.SerializationUtils;
 import org.apache.spark.SparkContext;
+import org.apache.spark.rdd.RDD;
+import scala.reflect.ClassTag;
 
-import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Concrete implementation of a CassandraRDD representing an RDD of {@link com.stratio.deep.entity.Cells} element.<br/>
@@ -44,27 +53,64 @@ public class CassandraCellRDD extends CassandraRDD<Cells> {
     }
 
     /**
-     * {@inheritDoc}
+     * Returns a new RDD reading only the given columns (plus the key columns) of the underlying column family.
+     * The columns referenced by the row filters of this RDD are read as well, so that the filters still apply
+     * to the projected rows. The configuration of this RDD is left untouched.
+     *
+     * @param columns the names of the columns to fetch.
+     * @return a new cell RDD over the projected columns.
      */
     @SuppressWarnings("unchecked")
-    @Override
-    protected Cells transformElement(Pair<Map<String, ByteBuffer>, Map<String, ByteBuffer>> elem) {
+    public CassandraCellRDD project(String... columns) {
+        IDeepJobConfig<Cells> projectedConfig = (IDeepJobConfig<Cells>) SerializationUtils.clone(config.value());
+        Map<String, Cell> columnDefinitions = projectedConfig.columnDefinitions();
+        Set<String> projection = new LinkedHashSet<>();
+        Collections.addAll(projection, columns);
 
-        Cells cells = new Cells();
-        Map<String, Cell> columnDefinitions = config.value().columnDefinitions();
+        for (FieldFilter filter : projectedConfig.getRowFilters()) {
+            projection.add(filter.getField());
+        }
 
-        for (Map.Entry<String, ByteBuffer> entry : elem.left.entrySet()) {
-            Cell cd = columnDefinitions.get(entry.getKey());
-            cells.add(Cell.create(cd, entry.getValue()));
+        for (String column : columns) {
+            if (!columnDefinitions.containsKey(column)) {
+                throw new DeepNoSuchFieldException("No column with name " + column + " has been found on table "
+                        + projectedConfig.getKeyspace() + "." + projectedConfig.getColumnFamily());
+            }
         }
 
-        for (Map.Entry<String, ByteBuffer> entry : elem.right.entrySet()) {
-            Cell cd = columnDefinitions.get(entry.getKey());
+        projectedConfig.inputColumns(projection.toArray(new String[projection.size()]));
+
+        return new CassandraCellRDD(sparkContext(), projectedConfig);
+    }
+
+    /**
+     * Maps this RDD with the given function, fetching from the data store only the columns the function declares
+     * to read.
+     *
+     * @param f the function to apply to each element.
+     * @param tag the class tag of the function return type.
+     * @param <U> the function return type.
+     * @return the mapped RDD.
+     */
+    public <U> RDD<U> mapProjected(AbstractCellsFunction<U> f, ClassTag<U> tag) {
+        return project(f.inputColumns()).map(f, tag);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected Cells transformElement(DeepRow elem) {
+        DeepRowSchema schema = elem.getSchema();
+        Cells cells = new Cells();
+
+        for (int i = 0; i < elem.size(); i++) {
+            Cell cd = schema.getCellDefinition(i);
             if (cd == null) {
                 continue;
             }
 
-            cells.add(Cell.create(cd, entry.getValue()));
+            cells.add(Cell.create(cd, elem.getValue(i)));
         }
 
         return cells;
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.stratio.deep.rdd;
+
+import org.apache.spark.Partition;
+import org.apache.spark.TaskContext;
+import org.apache.spark.rdd.RDD;
+import scala.collection.Iterator;
+import scala.collection.Seq;
+import scala.reflect.ClassTag$;
+
+/**
+ * RDD holding the number of rows of each partition of a {@link CassandraRDD}, counted without materializing them.
+ * <br/>
+ * Used by {@link CassandraRDD#cassandraCount(boolean)}.
+ *
+ * @param <T> the type of the rows of the parent RDD.
+ */
+class CassandraCountRDD<T> extends RDD<Long> {
+
+    private static final long serialVersionUID = 2318806164529781457L;
+
+    private final CassandraRDD<T> parent;
+
+    private final boolean scanKeys;
+
+    /**
+     * This constructor should not be called explicitly.<br/>
+     * Use {@link CassandraRDD#cassandraCount(boolean)} instead.
+     *
+     * @param parent the RDD whose rows will be counted.
+     * @param scanKeys whether to count the rows by scanning their keys instead of issuing COUNT queries.
+     */
+    CassandraCountRDD(CassandraRDD<T> parent, boolean scanKeys) {
+        super(parent, ClassTag$.MODULE$.<Long>apply(Long.class));
+        this.parent = parent;
+        this.scanKeys = scanKeys;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<Long> compute(Partition split, TaskContext ctx) {
+        return parent.computeCount(split, ctx, scanKeys);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Partition[] getPartitions() {
+        return parent.partitions();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Seq<String> getPreferredLocations(Partition split) {
+        return parent.getPreferredLocations(split);
+    }
+}
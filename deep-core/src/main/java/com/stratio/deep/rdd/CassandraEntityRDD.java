@@ -18,16 +18,15 @@ package com.stratio.deep.rdd;
 
 import com.stratio.deep.config.EntityDeepJobConfig;
 import com.stratio.deep.config.IDeepJobConfig;
-import com.stratio.deep.entity.Cell;
+import com.stratio.deep.cql.DeepRow;
+import com.stratio.deep.cql.DeepRowSchema;
 import com.stratio.deep.entity.IDeepType;
 import com.stratio.deep.exception.DeepNoSuchFieldException;
 import com.stratio.deep.utils.Utils;
 import org.apache.cassandra.db.marshal.AbstractType;
-import org.apache.cassandra.utils.Pair;
 import org.apache.spark.SparkContext;
 
 import java.nio.ByteBuffer;
-import java.util.Map;
 
 /**
  * Stratio's implementation of an RDD reading and writing data from and to
@@ -57,29 +56,28 @@ public final class CassandraEntityRDD<T extends IDeepType> extends CassandraRDD<
      * {@inheritDoc}
      */
     @Override
-    protected T transformElement(Pair<Map<String, ByteBuffer>, Map<String, ByteBuffer>> elem) {
-        Map<String, Cell> columnDefinitions = config.value().columnDefinitions();
+    protected T transformElement(DeepRow elem) {
+        DeepRowSchema schema = elem.getSchema();
 
         Class<T> entityClass = config.value().getEntityClass();
 
         EntityDeepJobConfig<T> edjc = (EntityDeepJobConfig) config.value();
         T instance = Utils.newTypeInstance(entityClass);
 
-        for (Map.Entry<String, ByteBuffer> entry : elem.left.entrySet()) {
-            Cell metadata = columnDefinitions.get(entry.getKey());
-            AbstractType<?> marshaller = metadata.marshaller();
-            edjc.setInstancePropertyFromDbName(instance, entry.getKey(), marshaller.compose(entry.getValue()));
+        for (int i = 0; i < schema.getKeyCount(); i++) {
+            AbstractType<?> marshaller = schema.getCellDefinition(i).marshaller();
+            edjc.setInstancePropertyFromDbName(instance, schema.getName(i), marshaller.compose(elem.getValue(i)));
         }
 
-        for (Map.Entry<String, ByteBuffer> entry : elem.right.entrySet()) {
-            if (entry.getValue() == null) {
+        for (int i = schema.getKeyCount(); i < elem.size(); i++) {
+            ByteBuffer value = elem.getValue(i);
+            if (value == null) {
                 continue;
             }
 
-            Cell metadata = columnDefinitions.get(entry.getKey());
-            AbstractType<?> marshaller = metadata.marshaller();
+            AbstractType<?> marshaller = schema.getCellDefinition(i).marshaller();
             try {
-                edjc.setInstancePropertyFromDbName(instance, entry.getKey(), marshaller.compose(entry.getValue()));
+                edjc.setInstancePropertyFromDbName(instance, schema.getName(i), marshaller.compose(value));
             } catch (DeepNoSuchFieldException e) {
                 log().debug(e.getMessage());
             }
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.stratio.deep.rdd;
+
+import org.apache.spark.Partition;
+import org.apache.spark.TaskContext;
+import org.apache.spark.rdd.RDD;
+import scala.collection.Iterator;
+import scala.collection.Seq;
+import scala.reflect.ClassTag$;
+
+/**
+ * RDD reading at most a given number of rows from each partition of a {@link CassandraRDD}, pushing the
+ * limit down to the queries sent to Cassandra.<br/>
+ * Used by {@link CassandraRDD#take(int)}.
+ *
+ * @param <T> the type of the rows of the parent RDD.
+ */
+class CassandraLimitedRDD<T> extends RDD<T> {
+
+    private static final long serialVersionUID = -2874620339461385731L;
+
+    private final CassandraRDD<T> parent;
+
+    private final int limit;
+
+    /**
+     * This constructor should not be called explicitly.<br/>
+     * Use {@link CassandraRDD#take(int)} instead.
+     *
+     * @param parent the RDD whose rows will be read.
+     * @param limit the maximum number of rows read from each partition.
+     */
+    CassandraLimitedRDD(CassandraRDD<T> parent, int limit) {
+        super(parent, ClassTag$.MODULE$.<T>apply(parent.config.value().getEntityClass()));
+        this.parent = parent;
+        this.limit = limit;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<T> compute(Partition split, TaskContext ctx) {
+        return parent.computeLimited(split, ctx, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Partition[] getPartitions() {
+        return parent.partitions();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Seq<String> getPreferredLocations(Partition split) {
+        return parent.getPreferredLocations(split);
+    }
+}
@@ -16,33 +16,51 @@
 
 package com.stratio.deep.rdd;
 
+import com.google.common.base.Function;
 import com.stratio.deep.config.IDeepJobConfig;
+import com.stratio.deep.cql.DeepConcurrentRecordReader;
+import com.stratio.deep.cql.DeepFilteringRecordReader;
+import com.stratio.deep.cql.DeepLimitingRecordReader;
+import com.stratio.deep.cql.DeepMultiRangeRecordReader;
 import com.stratio.deep.cql.DeepRecordReader;
+import com.stratio.deep.cql.DeepRow;
+import com.stratio.deep.cql.DeepRowSchema;
 import com.stratio.deep.cql.DeepTokenRange;
+import com.stratio.deep.cql.IDeepRecordReader;
 import com.stratio.deep.cql.RangeUtils;
+import com.stratio.deep.entity.Cell;
 import com.stratio.deep.entity.Cells;
 import com.stratio.deep.entity.IDeepType;
 import com.stratio.deep.exception.DeepIOException;
+import com.stratio.deep.exception.DeepIllegalAccessException;
+import com.stratio.deep.exception.DeepNoSuchFieldException;
+import com.stratio.deep.filter.FieldFilter;
 import com.stratio.deep.functions.CellList2TupleFunction;
 import com.stratio.deep.functions.DeepType2TupleFunction;
 import com.stratio.deep.partition.impl.DeepPartition;
-import org.apache.cassandra.utils.Pair;
+import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.SerializationUtils;
 import org.apache.spark.InterruptibleIterator;
 import org.apache.spark.Partition;
 import org.apache.spark.SparkContext;
 import org.apache.spark.TaskContext;
+import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.function.Function2;
 import org.apache.spark.broadcast.Broadcast;
 import org.apache.spark.rdd.RDD;
+import scala.Tuple2;
 import scala.collection.Iterator;
 import scala.collection.Seq;
 import scala.reflect.ClassTag$;
 import scala.runtime.AbstractFunction0;
 import scala.runtime.BoxedUnit;
 
-import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static scala.collection.JavaConversions.asScalaBuffer;
 import static scala.collection.JavaConversions.asScalaIterator;
@@ -68,7 +86,106 @@ public abstract class CassandraRDD<T> extends RDD<T> {
      * @param elem the element to transform.
      * @return the transformed element.
      */
-    protected abstract T transformElement(Pair<Map<String, ByteBuffer>, Map<String, ByteBuffer>> elem);
+    protected abstract T transformElement(DeepRow elem);
+
+    /**
+     * Groups the rows returned by a record reader by Cassandra partition. The reader must return
+     * the rows of each partition contiguously, which is the case when reading in token order.
+     */
+    private class WideRowIterator implements java.util.Iterator<WideRow<T>> {
+        private final IDeepRecordReader recordReader;
+        private DeepRow lookahead;           // row already read from the reader and not consumed yet
+        private PartitionIterator current;   // iterator over the rows of the last returned partition
+
+        WideRowIterator(IDeepRecordReader recordReader) {
+            this.recordReader = recordReader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (current != null) {
+                current.skipRemaining();
+                current = null;
+            }
+
+            return lookahead != null || recordReader.hasNext();
+        }
+
+        @Override
+        public WideRow<T> next() {
+            if (!hasNext()) {
+                throw new DeepIllegalAccessException("WideRowIterator exhausted");
+            }
+
+            if (lookahead == null) {
+                lookahead = recordReader.next();
+            }
+
+            DeepRow first = lookahead;
+            DeepRowSchema schema = first.getSchema();
+
+            Cells partitionKey = new Cells();
+            for (int i = 0; i < schema.getPartitionKeyCount(); i++) {
+                partitionKey.add(Cell.create(schema.getCellDefinition(i), first.getValue(i)));
+            }
+
+            current = new PartitionIterator(first);
+            return new WideRow<>(partitionKey, current);
+        }
+
+        @Override
+        public void remove() {
+            throw new DeepIOException("Method not implemented (and won't be implemented anytime soon!!!)");
+        }
+
+        /**
+         * Iterates over the rows of the reader as long as they belong to the same partition as the given first row.
+         */
+        private class PartitionIterator implements java.util.Iterator<T> {
+            private final DeepRow first;
+            private boolean finished = false;
+
+            PartitionIterator(DeepRow first) {
+                this.first = first;
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (finished) {
+                    return false;
+                }
+
+                if (lookahead == null && recordReader.hasNext()) {
+                    lookahead = recordReader.next();
+                }
+
+                finished = lookahead == null || !lookahead.samePartition(first);
+                return !finished;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new DeepIllegalAccessException("Partition exhausted");
+                }
+
+                DeepRow row = lookahead;
+                lookahead = null;
+                return transformElement(row);
+            }
+
+            void skipRemaining() {
+                while (hasNext()) {
+                    lookahead = null;
+                }
+            }
+
+            @Override
+            public void remove() {
+                throw new DeepIOException("Method not implemented (and won't be implemented anytime soon!!!)");
+            }
+        }
+    }
 
     /**
      * Helper callback class called by Spark when the current RDD is computed
@@ -79,11 +196,11 @@ public abstract class CassandraRDD<T> extends RDD<T> {
      * @author Luca Rosellini <luca@strat.io>
      */
     class OnComputedRDDCallback<R> extends AbstractFunction0<R> {
-        private final DeepRecordReader recordReader;
+        private final IDeepRecordReader recordReader;
         private final DeepPartition deepPartition;
 
         public OnComputedRDDCallback(
-                DeepRecordReader recordReader,
+                IDeepRecordReader recordReader,
                 DeepPartition dp) {
             super();
             this.recordReader = recordReader;
@@ -185,8 +302,76 @@ public abstract class CassandraRDD<T> extends RDD<T> {
 
         log().debug("Executing compute for split: " + deepPartition);
 
-        final DeepRecordReader recordReader = initRecordReader(ctx, deepPartition);
+        IDeepRecordReader recordReader = initRecordReader(ctx, deepPartition, config.value().isOrderedScan());
+
+        return transformRecords(ctx, recordReader);
+    }
+
+    /**
+     * Computes at most <i>limit</i> elements of each token range of the given partition, see {@link #take(int)}.
+     */
+    Iterator<T> computeLimited(Partition split, TaskContext ctx, final int limit) {
+        DeepPartition deepPartition = (DeepPartition) split;
+
+        log().debug("Executing compute for split: " + deepPartition + ", limit: " + limit);
+
+        final IDeepJobConfig<T> jobConfig = config.value();
+
+        IDeepRecordReader recordReader = new DeepMultiRangeRecordReader(deepPartition.getRanges(),
+                new Function<DeepTokenRange, IDeepRecordReader>() {
+                    @Override
+                    public IDeepRecordReader apply(DeepTokenRange range) {
+                        if (jobConfig.getRowFilters().isEmpty()) {
+                            return new DeepRecordReader(jobConfig, range, limit);
+                        }
+
+                        /* rows may be discarded by the row filters, so the limit cannot be pushed down */
+                        return new DeepLimitingRecordReader(new DeepFilteringRecordReader(
+                                new DeepRecordReader(jobConfig, range), jobConfig.getRowFilters()), limit);
+                    }
+                });
+
+        ctx.addOnCompleteCallback(getComputeCallback(recordReader, deepPartition));
+
+        return transformRecords(ctx, recordReader);
+    }
+
+    /**
+     * Counts the rows of the given partition, see {@link #cassandraCount(boolean)}.
+     */
+    Iterator<Long> computeCount(Partition split, TaskContext ctx, boolean scanKeys) {
+        DeepPartition deepPartition = (DeepPartition) split;
+
+        log().debug("Executing count for split: " + deepPartition);
+
+        if (!config.value().getRowFilters().isEmpty()) {
+            /* row filters are evaluated on the rows, which must be read */
+            IDeepRecordReader recordReader = initRecordReader(ctx, deepPartition, false);
+            long count = 0;
+
+            while (recordReader.hasNext()) {
+                recordReader.next();
+                count++;
+            }
+
+            return asScalaIterator(Collections.singletonList(count).iterator());
+        }
+
+        long count = 0;
+
+        for (DeepTokenRange range : deepPartition.getRanges()) {
+            DeepRecordReader recordReader = new DeepRecordReader(config.value(), range);
+            count += recordReader.count(scanKeys);
+            recordReader.close();
+        }
 
+        return asScalaIterator(Collections.singletonList(count).iterator());
+    }
+
+    /**
+     * Wraps the given record reader in a scala iterator transforming its rows.
+     */
+    private Iterator<T> transformRecords(TaskContext ctx, final IDeepRecordReader recordReader) {
         /**
          * Creates a new anonymous iterator inner class and returns it as a
          * scala iterator.
@@ -212,6 +397,131 @@ public abstract class CassandraRDD<T> extends RDD<T> {
         return new InterruptibleIterator<T>(ctx, asScalaIterator(recordReaderIterator));
     }
 
+    /**
+     * Returns the number of rows of this RDD, counted by Cassandra without transferring them, see
+     * {@link #cassandraCount(boolean)}.
+     *
+     * @return the number of rows of this RDD.
+     */
+    public long cassandraCount() {
+        return cassandraCount(false);
+    }
+
+    /**
+     * Returns the number of rows of this RDD without materializing them. Each partition is counted issuing
+     * COUNT queries over sub-ranges small enough to stay within the server limits or, if <i>scanKeys</i>
+     * is true, by reading only the key columns of its rows.<br/>
+     * If row filters have been configured, the rows must be read in order to evaluate them and <i>scanKeys</i> is
+     * ignored.
+     *
+     * @param scanKeys whether to count the rows by scanning their keys instead of issuing COUNT queries.
+     * @return the number of rows of this RDD.
+     */
+    public long cassandraCount(boolean scanKeys) {
+        long count = 0;
+
+        for (Long partitionCount : (Long[]) new CassandraCountRDD<>(this, scanKeys).collect()) {
+            count += partitionCount;
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns an RDD reading a deterministic sample of the token ranges of this RDD, see
+     * {@link CassandraSampledRDD}. Unlike {@link #sample(boolean, double, int)}, rows not belonging to the
+     * sample are never read from Cassandra.
+     *
+     * @param fraction the expected fraction of token ranges to read, greater than 0 and not greater than 1.
+     * @param seed the seed of the token range selection.
+     * @param maxRowsPerRange the maximum number of rows read from each sampled range, zero meaning no limit.
+     * @return a new sampled RDD.
+     */
+    public CassandraSampledRDD<T> sampleRanges(double fraction, long seed, int maxRowsPerRange) {
+        return new CassandraSampledRDD<>(this, fraction, seed, maxRowsPerRange);
+    }
+
+    /**
+     * Aggregates the given numeric columns grouped by the value of <i>groupColumn</i>. Only the referenced
+     * columns are read, and their values are decoded straight from the bytes returned by Cassandra into
+     * per-task {@link ColumnAggregate}s, without building the elements of this RDD. Only the partial aggregates
+     * are shuffled to compute the final ones.
+     *
+     * @param groupColumn the name of the column to group by.
+     * @param valueColumns the names of the numeric columns to aggregate.
+     * @param <K> the type of the group column.
+     * @return an RDD holding, for each group, the aggregates of the value columns in the given order.
+     */
+    @SuppressWarnings("unchecked")
+    public <K> RDD<Tuple2<K, ColumnAggregate[]>> aggregateByColumns(String groupColumn, String... valueColumns) {
+        IDeepJobConfig<T> projectedConfig = (IDeepJobConfig<T>) SerializationUtils.clone(config.value());
+        Map<String, Cell> columnDefinitions = projectedConfig.columnDefinitions();
+        String[] columns = (String[]) ArrayUtils.add(valueColumns, groupColumn);
+        Set<String> projection = new LinkedHashSet<>();
+        Collections.addAll(projection, columns);
+
+        for (FieldFilter filter : projectedConfig.getRowFilters()) {
+            projection.add(filter.getField());
+        }
+
+        for (String column : columns) {
+            if (!columnDefinitions.containsKey(column)) {
+                throw new DeepNoSuchFieldException("No column with name " + column + " has been found on table "
+                        + projectedConfig.getKeyspace() + "." + projectedConfig.getColumnFamily());
+            }
+        }
+
+        for (String column : valueColumns) {
+            if (!Number.class.isAssignableFrom(columnDefinitions.get(column).getValueType())) {
+                throw new IllegalArgumentException("Column " + column + " is not numeric and cannot be aggregated");
+            }
+        }
+
+        projectedConfig.inputColumns(projection.toArray(new String[projection.size()]));
+
+        RDD<Tuple2<K, ColumnAggregate[]>> partials =
+                new CassandraAggregateRDD<T, K>(this, projectedConfig, groupColumn, valueColumns);
+
+        return new JavaPairRDD<>(partials, ClassTag$.MODULE$.<K>apply(Object.class),
+                ClassTag$.MODULE$.<ColumnAggregate[]>apply(ColumnAggregate[].class))
+                .reduceByKey(new ColumnAggregatesReducer()).rdd();
+    }
+
+    /**
+     * Merges the partial aggregates of a group.
+     */
+    private static class ColumnAggregatesReducer extends Function2<ColumnAggregate[], ColumnAggregate[],
+            ColumnAggregate[]> {
+
+        private static final long serialVersionUID = -1693735281498203370L;
+
+        @Override
+        public ColumnAggregate[] call(ColumnAggregate[] a, ColumnAggregate[] b) {
+            for (int i = 0; i < a.length; i++) {
+                a[i].merge(b[i]);
+            }
+
+            return a;
+        }
+    }
+
+    /**
+     * Takes the first <i>num</i> elements of this RDD. Partitions are probed progressively as done by
+     * {@link org.apache.spark.rdd.RDD#take(int)}, but the number of elements is pushed down to the queries
+     * so that no more rows than needed are read from each of them.
+     *
+     * @param num the number of elements to take.
+     * @return an array holding at most <i>num</i> elements.
+     */
+    @Override
+    public Object take(int num) {
+        if (num <= 0) {
+            return super.take(num);
+        }
+
+        return new CassandraLimitedRDD<>(this, num).take(num);
+    }
+
     /**
      * Gets an instance of the callback that will be used on the completion of the computation of this RDD.
      *
@@ -219,30 +529,58 @@ public abstract class CassandraRDD<T> extends RDD<T> {
      * @param dp the spark deep partition.
      * @return an instance of the callback that will be used on the completion of the computation of this RDD.
      */
-    protected AbstractFunction0<BoxedUnit> getComputeCallback(DeepRecordReader recordReader,
+    protected AbstractFunction0<BoxedUnit> getComputeCallback(IDeepRecordReader recordReader,
                                                               DeepPartition dp) {
         return new OnComputedRDDCallback<>(recordReader, dp);
     }
 
+    /**
+     * Returns an RDD grouping the rows of this RDD by Cassandra partition. Each element holds the
+     * partition key and a lazy iterator over the rows of the partition, so that very wide partitions can be
+     * processed without ever holding more than the configured pages in memory.<br/>
+     * Sub-ranges are always scanned in token order, regardless of the <i>orderedScan</i> setting.
+     *
+     * @return a new RDD of wide rows.
+     */
+    public CassandraWideRowRDD<T> widePartitions() {
+        return new CassandraWideRowRDD<>(this);
+    }
+
+    /**
+     * Computes the wide rows of the given partition, see {@link #widePartitions()}.
+     */
+    Iterator<WideRow<T>> computeWideRows(Partition split, TaskContext ctx) {
+        DeepPartition deepPartition = (DeepPartition) split;
+
+        log().debug("Executing wide rows compute for split: " + deepPartition);
+
+        IDeepRecordReader recordReader = initRecordReader(ctx, deepPartition, true);
+
+        return new InterruptibleIterator<WideRow<T>>(ctx, asScalaIterator(new WideRowIterator(recordReader)));
+    }
+
     /**
      * Returns the partitions on which this RDD depends on.
      * <p/>
      * Uses the underlying CqlPagingInputFormat in order to retrieve the splits.
      * <p/>
-     * The number of splits, and hence the number of partitions equals to the
-     * number of tokens configured in cassandra.yaml + 1.
+     * The number of splits equals to the number of tokens configured in cassandra.yaml + 1. Unless a partition
+     * count has been configured, each split is mapped to its own partition, otherwise splits held by the same
+     * replicas are grouped into the configured number of partitions.
      */
     @Override
     public Partition[] getPartitions() {
 
         List<DeepTokenRange> underlyingInputSplits = RangeUtils.getSplits(config.value());
+        List<List<DeepTokenRange>> groupedSplits =
+                RangeUtils.groupRanges(underlyingInputSplits, config.value().getPartitionCount());
 
-        Partition[] partitions = new DeepPartition[underlyingInputSplits.size()];
+        Partition[] partitions = new DeepPartition[groupedSplits.size()];
 
         int i = 0;
 
-        for (DeepTokenRange split : underlyingInputSplits) {
-            partitions[i] = new DeepPartition(id(), i, split);
+        for (List<DeepTokenRange> splits : groupedSplits) {
+            partitions[i] = new DeepPartition(id(), i, splits);
 
             log().debug("Detected partition: " + partitions[i]);
             ++i;
@@ -258,7 +596,7 @@ public abstract class CassandraRDD<T> extends RDD<T> {
     public Seq<String> getPreferredLocations(Partition split) {
         DeepPartition p = (DeepPartition) split;
 
-        List<String> locations = p.splitWrapper().getReplicas();
+        List<String> locations = RangeUtils.datacenterReplicas(p.splitWrapper(), config.value().getDatacenter());
         log().debug("getPreferredLocations: " + p);
 
         return asScalaBuffer(locations);
@@ -266,15 +604,44 @@ public abstract class CassandraRDD<T> extends RDD<T> {
 
     /**
      * Instantiates a new deep record reader object associated to the provided partition.
+     * If a scan concurrency greater than one has been configured, each partition token range
+     * is split and its sub-ranges are scanned concurrently.
      *
      * @param ctx the spark task context.
      * @param dp a spark deep partition
+     * @param ordered whether concurrently scanned sub-ranges must be returned in token order.
      * @return the deep record reader associated to the provided partition.
      */
-    private DeepRecordReader initRecordReader(TaskContext ctx, final DeepPartition dp) {
-        DeepRecordReader recordReader = new DeepRecordReader(config.value(), dp.splitWrapper());
+    private IDeepRecordReader initRecordReader(TaskContext ctx, final DeepPartition dp, boolean ordered) {
+        IDeepRecordReader recordReader = newRecordReader(config.value(), dp.getRanges(), ordered);
         ctx.addOnCompleteCallback(getComputeCallback(recordReader, dp));
         return recordReader;
 
     }
+
+    /**
+     * Instantiates a new deep record reader over the given token ranges, scanned back to back. The sub-ranges of
+     * each range are scanned concurrently if a scan concurrency greater than one has been configured. Rows not
+     * satisfying the configured row filters are discarded by the returned reader.
+     */
+    static IDeepRecordReader newRecordReader(final IDeepJobConfig<?> jobConfig, List<DeepTokenRange> ranges,
+                                             final boolean ordered) {
+        IDeepRecordReader recordReader = ranges.size() == 1 ? newRangeRecordReader(jobConfig, ranges.get(0), ordered) :
+                new DeepMultiRangeRecordReader(ranges, new Function<DeepTokenRange, IDeepRecordReader>() {
+                    @Override
+                    public IDeepRecordReader apply(DeepTokenRange range) {
+                        return newRangeRecordReader(jobConfig, range, ordered);
+                    }
+                });
+
+        return jobConfig.getRowFilters().isEmpty() ? recordReader :
+                new DeepFilteringRecordReader(recordReader, jobConfig.getRowFilters());
+    }
+
+    private static IDeepRecordReader newRangeRecordReader(IDeepJobConfig<?> jobConfig, DeepTokenRange range,
+                                                          boolean ordered) {
+        return jobConfig.getScanConcurrency() > 1 ?
+                new DeepConcurrentRecordReader(jobConfig, range, jobConfig.getScanConcurrency(), ordered) :
+                new DeepRecordReader(jobConfig, range);
+    }
 }
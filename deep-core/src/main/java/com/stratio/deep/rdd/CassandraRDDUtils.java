@@ -49,6 +49,18 @@ class CassandraRDDUtils {
     CassandraRDDUtils() {
     }
 
+    /**
+     * Returns the RDD whose first element is used as a template to create the output table. When saving a
+     * Cassandra RDD only one row is read from each probed partition.
+     */
+    @SuppressWarnings("unchecked")
+    private static <W> RDD<Tuple2<Cells, Cells>> templateRDD(RDD<W> rdd,
+                                                            Function1<W, Tuple2<Cells, Cells>> transformer) {
+        RDD<W> source = rdd instanceof CassandraRDD ? new CassandraLimitedRDD<>((CassandraRDD<W>) rdd, 1) : rdd;
+
+        return source.map(transformer, ClassTag$.MODULE$.<Tuple2<Cells, Cells>>apply(Tuple2.class));
+    }
+
     static <W> void doCql3SaveToCassandra(RDD<W> rdd, IDeepJobConfig<W> writeConfig,
                                           Function1<W, Tuple2<Cells, Cells>> transformer) {
         if (!writeConfig.getIsWriteConfig()) {
@@ -59,7 +71,7 @@ class CassandraRDDUtils {
         RDD<Tuple2<Cells, Cells>> mappedRDD = rdd.map(transformer,
                 ClassTag$.MODULE$.<Tuple2<Cells, Cells>>apply(tuple.getClass()));
 
-        ((GenericDeepJobConfig) writeConfig).createOutputTableIfNeeded(mappedRDD);
+        ((GenericDeepJobConfig) writeConfig).createOutputTableIfNeeded(templateRDD(rdd, transformer));
 
         final int pageSize = writeConfig.getBatchSize();
         int offset = 0;
@@ -104,7 +116,7 @@ class CassandraRDDUtils {
         final RDD<Tuple2<Cells, Cells>> mappedRDD = rdd.map(transformer,
                 ClassTag$.MODULE$.<Tuple2<Cells, Cells>>apply(tuple.getClass()));
 
-        ((GenericDeepJobConfig) writeConfig).createOutputTableIfNeeded(mappedRDD);
+        ((GenericDeepJobConfig) writeConfig).createOutputTableIfNeeded(templateRDD(rdd, transformer));
 
         ClassTag<Integer> uClassTag = ClassTag$.MODULE$.apply(Integer.class);
 
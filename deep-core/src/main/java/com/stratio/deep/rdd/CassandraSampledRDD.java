@@ -0,0 +1,167 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.stratio.deep.rdd;
+
+import com.stratio.deep.cql.DeepTokenRange;
+import com.stratio.deep.cql.RangeUtils;
+import com.stratio.deep.partition.impl.DeepPartition;
+import org.apache.cassandra.dht.IPartitioner;
+import org.apache.spark.Dependency;
+import org.apache.spark.Partition;
+import org.apache.spark.TaskContext;
+import org.apache.spark.rdd.RDD;
+import scala.collection.Iterator;
+import scala.collection.Seq;
+import scala.reflect.ClassTag$;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * RDD reading a deterministic, seeded sample of the token ranges of a {@link CassandraRDD}.<br/>
+ * The token range of each partition of the parent RDD is split in sub-ranges, so that the sample holds at least one
+ * sub-range, and each sub-range is selected with probability <i>fraction</i>. Only the rows of the selected
+ * sub-ranges are read, optionally capped to a maximum number of rows per sub-range.<br/>
+ * Use {@link CassandraRDD#sampleRanges(double, long, int)} to create it.
+ *
+ * @param <T> the type of the rows of the parent RDD.
+ */
+public class CassandraSampledRDD<T> extends RDD<T> {
+
+    private static final long serialVersionUID = -3920318460962305584L;
+
+    // maximum number of sub-ranges each token range of the parent RDD is split in
+    private static final int MAX_SPLIT_FACTOR = 64;
+
+    private final CassandraRDD<T> parent;
+
+    private final double fraction;
+
+    private final long seed;
+
+    private final int maxRowsPerRange;
+
+    private double sampledFraction;
+
+    /**
+     * This constructor should not be called explicitly.<br/>
+     * Use {@link CassandraRDD#sampleRanges(double, long, int)} instead.
+     *
+     * @param parent the RDD to sample.
+     * @param fraction the expected fraction of token sub-ranges to read.
+     * @param seed the seed of the sub-range selection.
+     * @param maxRowsPerRange the maximum number of rows read from each sub-range, zero meaning no limit.
+     */
+    CassandraSampledRDD(CassandraRDD<T> parent, double fraction, long seed, int maxRowsPerRange) {
+        /* the partitions are not those of the parent, whose rows are read straight from Cassandra: no dependency */
+        super(parent.sparkContext(), scala.collection.Seq$.MODULE$.<Dependency<?>>empty(),
+                ClassTag$.MODULE$.<T>apply(parent.config.value().getEntityClass()));
+
+        if (fraction <= 0 || fraction > 1) {
+            throw new IllegalArgumentException("Sampling fraction should be greater than 0 and not greater than 1");
+        }
+
+        if (maxRowsPerRange < 0) {
+            throw new IllegalArgumentException("maxRowsPerRange cannot be negative");
+        }
+
+        this.parent = parent;
+        this.fraction = fraction;
+        this.seed = seed;
+        this.maxRowsPerRange = maxRowsPerRange;
+    }
+
+    /**
+     * Returns the actual fraction of the token ranges read by this RDD, to be used to scale the results computed
+     * over the sample. Does not take into account the cap on the rows read per range.
+     *
+     * @return the number of sampled sub-ranges divided by the total number of sub-ranges.
+     */
+    public double getSampledFraction() {
+        partitions();
+        return sampledFraction;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<T> compute(Partition split, TaskContext ctx) {
+        return maxRowsPerRange > 0 ? parent.computeLimited(split, ctx, maxRowsPerRange) : parent.compute(split, ctx);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Partition[] getPartitions() {
+        IPartitioner partitioner = RangeUtils.getPartitioner(parent.config.value());
+
+        List<DeepTokenRange> parentRanges = new ArrayList<>();
+        for (Partition partition : parent.partitions()) {
+            parentRanges.addAll(((DeepPartition) partition).getRanges());
+        }
+
+        int factor = 1;
+        while (factor < MAX_SPLIT_FACTOR && parentRanges.size() * factor * fraction < 1) {
+            factor *= 2;
+        }
+
+        List<DeepTokenRange> ranges = new ArrayList<>();
+        for (DeepTokenRange range : parentRanges) {
+            if (factor > 1) {
+                ranges.addAll(RangeUtils.splitRange(range, partitioner, factor));
+            } else {
+                ranges.add(range);
+            }
+        }
+
+        Random random = new Random(seed);
+        List<DeepTokenRange> sampled = new ArrayList<>();
+
+        for (DeepTokenRange range : ranges) {
+            if (random.nextDouble() < fraction) {
+                sampled.add(range);
+            }
+        }
+
+        if (sampled.isEmpty()) {
+            sampled.add(ranges.get(random.nextInt(ranges.size())));
+        }
+
+        sampledFraction = (double) sampled.size() / ranges.size();
+
+        log().debug("Sampled " + sampled.size() + " token ranges out of " + ranges.size());
+
+        Partition[] partitions = new DeepPartition[sampled.size()];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new DeepPartition(id(), i, sampled.get(i));
+        }
+
+        return partitions;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Seq<String> getPreferredLocations(Partition split) {
+        return parent.getPreferredLocations(split);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.deep.rdd;
+
+import org.apache.spark.Partition;
+import org.apache.spark.TaskContext;
+import org.apache.spark.rdd.RDD;
+import scala.collection.Iterator;
+import scala.collection.Seq;
+import scala.reflect.ClassTag$;
+
+/**
+ * RDD grouping the rows read by a {@link CassandraRDD} by Cassandra partition, see {@link WideRow}.<br/>
+ * Use {@link CassandraRDD#widePartitions()} to create it.
+ *
+ * @param <T> the type of the rows of the parent RDD.
+ */
+public class CassandraWideRowRDD<T> extends RDD<WideRow<T>> {
+
+    private static final long serialVersionUID = 4427358213904576237L;
+
+    private final CassandraRDD<T> parent;
+
+    /**
+     * This constructor should not be called explicitly.<br/>
+     * Use {@link CassandraRDD#widePartitions()} instead.
+     *
+     * @param parent the RDD whose rows will be grouped.
+     */
+    @SuppressWarnings("unchecked")
+    CassandraWideRowRDD(CassandraRDD<T> parent) {
+        super(parent, ClassTag$.MODULE$.<WideRow<T>>apply(WideRow.class));
+        this.parent = parent;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Iterator<WideRow<T>> compute(Partition split, TaskContext ctx) {
+        return parent.computeWideRows(split, ctx);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Partition[] getPartitions() {
+        return parent.partitions();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Seq<String> getPreferredLocations(Partition split) {
+        return parent.getPreferredLocations(split);
+    }
+}
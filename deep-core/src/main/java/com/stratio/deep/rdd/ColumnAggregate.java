@@ -0,0 +1,207 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.stratio.deep.rdd;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+
+/**
+ * Partial aggregate of the non null values of a numeric column: count, sum, min, max, mean and variance.<br/>
+ * The sum, min and max of integral columns (<i>int</i>, <i>bigint</i> and <i>counter</i>) are exact, sums
+ * overflowing a long being carried over to a {@link BigInteger}. Those of any other numeric column are computed
+ * on doubles. The mean and the variance are updated with Welford's algorithm, and merged with Chan's formula.<br/>
+ * Computed by {@link CassandraRDD#aggregateByColumns(String, String...)}.
+ */
+public final class ColumnAggregate implements Serializable {
+
+    private static final long serialVersionUID = 6210349855427016142L;
+
+    private final boolean integral;
+
+    private long count;
+
+    private double mean;
+
+    // sum of the squared differences from the mean
+    private double m2;
+
+    private long longSum;
+
+    // sum carried over from longSum when it overflowed, null if it never did
+    private BigInteger overflowSum;
+
+    private long longMin = Long.MAX_VALUE;
+
+    private long longMax = Long.MIN_VALUE;
+
+    private double doubleSum;
+
+    private double doubleMin = Double.POSITIVE_INFINITY;
+
+    private double doubleMax = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates an empty aggregate.
+     *
+     * @param integral whether the column holds integral values, added with {@link #add(long)}.
+     */
+    ColumnAggregate(boolean integral) {
+        this.integral = integral;
+    }
+
+    /**
+     * Adds a value of an integral column to this aggregate.
+     *
+     * @param value the value to add.
+     */
+    void add(long value) {
+        addToSum(value);
+        longMin = Math.min(longMin, value);
+        longMax = Math.max(longMax, value);
+        addToMoments(value);
+    }
+
+    /**
+     * Adds a value of a non integral column to this aggregate.
+     *
+     * @param value the value to add.
+     */
+    void add(double value) {
+        doubleSum += value;
+        doubleMin = Math.min(doubleMin, value);
+        doubleMax = Math.max(doubleMax, value);
+        addToMoments(value);
+    }
+
+    private void addToSum(long value) {
+        long result = longSum + value;
+
+        if (((longSum ^ result) & (value ^ result)) < 0) {
+            overflowSum = BigInteger.valueOf(longSum).add(overflowSum != null ? overflowSum : BigInteger.ZERO);
+            result = value;
+        }
+
+        longSum = result;
+    }
+
+    private void addToMoments(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+    }
+
+    /**
+     * Merges the given aggregate, of the same column, into this one.
+     *
+     * @param other the aggregate to merge.
+     * @return this aggregate.
+     */
+    ColumnAggregate merge(ColumnAggregate other) {
+        if (other.count == 0) {
+            return this;
+        }
+
+        addToSum(other.longSum);
+        if (other.overflowSum != null) {
+            overflowSum = other.overflowSum.add(overflowSum != null ? overflowSum : BigInteger.ZERO);
+        }
+
+        longMin = Math.min(longMin, other.longMin);
+        longMax = Math.max(longMax, other.longMax);
+        doubleSum += other.doubleSum;
+        doubleMin = Math.min(doubleMin, other.doubleMin);
+        doubleMax = Math.max(doubleMax, other.doubleMax);
+
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+
+        return this;
+    }
+
+    /**
+     * @return whether the column holds integral values, whose sum, min and max are exact.
+     */
+    public boolean isIntegral() {
+        return integral;
+    }
+
+    /**
+     * @return the number of non null values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the sum of the values: a Long, or a BigInteger if it does not fit in a long, for integral columns,
+     * a Double otherwise.
+     */
+    public Number getSum() {
+        if (!integral) {
+            return doubleSum;
+        }
+
+        if (overflowSum == null) {
+            return longSum;
+        }
+
+        BigInteger sum = overflowSum.add(BigInteger.valueOf(longSum));
+        return sum.bitLength() < Long.SIZE ? (Number) sum.longValue() : sum;
+    }
+
+    /**
+     * @return the minimum value, a Long for integral columns and a Double otherwise, null if there are no values.
+     */
+    public Number getMin() {
+        return count == 0 ? null : integral ? (Number) longMin : (Number) doubleMin;
+    }
+
+    /**
+     * @return the maximum value, a Long for integral columns and a Double otherwise, null if there are no values.
+     */
+    public Number getMax() {
+        return count == 0 ? null : integral ? (Number) longMax : (Number) doubleMax;
+    }
+
+    /**
+     * @return the mean of the values, NaN if there are no values.
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return the population variance of the values, NaN if there are no values.
+     */
+    public double getVariance() {
+        return count == 0 ? Double.NaN : m2 / count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "ColumnAggregate{count=" + count + ", sum=" + getSum() + ", min=" + getMin() + ", max=" + getMax() +
+                ", mean=" + getMean() + ", variance=" + getVariance() + "}";
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.deep.rdd;
+
+import com.stratio.deep.entity.Cells;
+
+import java.util.Iterator;
+
+/**
+ * A Cassandra partition returned by {@link CassandraWideRowRDD}: its partition key and a lazy iterator
+ * over its clustering rows.
+ * <p>
+ * Rows are read from Cassandra page by page while the iterator is consumed, so partitions of any size
+ * can be processed with a bounded amount of memory. As a consequence, the iterator is only valid until
+ * the next partition is requested and cannot be serialized: wide rows must be consumed inside the task
+ * computing them (i.e. in map, flatMap, mapPartitions or foreach functions).
+ * </p>
+ *
+ * @param <T> the type of the clustering rows.
+ */
+public class WideRow<T> {
+    private final Cells partitionKey;
+    private final Iterator<T> rows;
+
+    /**
+     * Builds a new wide row.
+     *
+     * @param partitionKey the cells of the partition key.
+     * @param rows the iterator over the rows of the partition.
+     */
+    public WideRow(Cells partitionKey, Iterator<T> rows) {
+        this.partitionKey = partitionKey;
+        this.rows = rows;
+    }
+
+    /**
+     * @return the cells of the partition key.
+     */
+    public Cells getPartitionKey() {
+        return partitionKey;
+    }
+
+    /**
+     * @return the lazy iterator over the rows of the partition, in clustering order.
+     */
+    public Iterator<T> getRows() {
+        return rows;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "WideRow{" +
+                "partitionKey=" + partitionKey +
+                '}';
+    }
+}
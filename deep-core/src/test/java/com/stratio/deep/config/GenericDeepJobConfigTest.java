@@ -90,7 +90,7 @@ public class GenericDeepJobConfigTest extends AbstractDeepSparkContextTest {
 
         IDeepJobConfig<TestEntity> djc = DeepJobConfigFactory.create(TestEntity.class);
 
-        djc.host(null).rpcPort(null).pageSize(0).bisectFactor(3);
+        djc.host(null).rpcPort(null).pageSize(0).bisectFactor(0);
 
         try {
             djc.getKeyspace();
@@ -256,6 +256,43 @@ public class GenericDeepJobConfigTest extends AbstractDeepSparkContextTest {
             fail(e.getMessage());
         }
 
+        try {
+            djc.prefetchDepth(-1);
+            djc.initialize();
+            fail();
+        } catch (IllegalArgumentException iae) {
+            // OK
+            log.info("Correctly catched IllegalArgumentException: " + iae.getLocalizedMessage());
+        } catch (Exception e) {
+            fail(e.getMessage());
+        }
+
+        try {
+            djc.prefetchDepth(1 + Constants.DEFAULT_MAX_PREFETCH_DEPTH);
+            djc.initialize();
+            fail();
+        } catch (IllegalArgumentException iae) {
+            // OK
+            log.info("Correctly catched IllegalArgumentException: " + iae.getLocalizedMessage());
+
+            djc.prefetchDepth(2);
+        } catch (Exception e) {
+            fail(e.getMessage());
+        }
+
+        try {
+            djc.speculativeReadPercentile(100);
+            djc.initialize();
+            fail();
+        } catch (IllegalArgumentException iae) {
+            // OK
+            log.info("Correctly catched IllegalArgumentException: " + iae.getLocalizedMessage());
+
+            djc.speculativeReadPercentile(99);
+        } catch (Exception e) {
+            fail(e.getMessage());
+        }
+
 
         djc.readConsistencyLevel(ConsistencyLevel.LOCAL_ONE.name());
 
@@ -294,6 +331,18 @@ public class GenericDeepJobConfigTest extends AbstractDeepSparkContextTest {
             fail(e.getMessage());
         }
 
+        try {
+            djc.scanConcurrency(-1);
+            djc.initialize();
+            fail();
+        } catch (IllegalArgumentException iae) {
+            // OK
+            log.info("Correctly catched IllegalArgumentException: " + iae.getLocalizedMessage());
+            djc.scanConcurrency(4);
+        } catch (Exception e) {
+            fail(e.getMessage());
+        }
+
         djc.initialize();
     }
 
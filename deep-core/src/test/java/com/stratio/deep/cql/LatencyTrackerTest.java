@@ -0,0 +1,68 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.deep.cql;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+@Test
+public class LatencyTrackerTest {
+
+    @Test
+    public void testNotEnoughSamples() {
+        LatencyTracker tracker = new LatencyTracker();
+
+        for (int i = 1; i < LatencyTracker.MIN_SAMPLES; i++) {
+            tracker.record(i);
+        }
+
+        assertEquals(tracker.percentile(99), -1);
+
+        tracker.record(LatencyTracker.MIN_SAMPLES);
+
+        assertEquals(tracker.percentile(99), LatencyTracker.MIN_SAMPLES);
+    }
+
+    @Test
+    public void testPercentile() {
+        LatencyTracker tracker = new LatencyTracker();
+
+        for (int i = 100; i >= 1; i--) {
+            tracker.record(i);
+        }
+
+        assertEquals(tracker.percentile(50), 50);
+        assertEquals(tracker.percentile(99), 99);
+        assertEquals(tracker.percentile(99.9), 100);
+    }
+
+    @Test
+    public void testOldestSamplesAreReplaced() {
+        LatencyTracker tracker = new LatencyTracker();
+
+        for (int i = 0; i < LatencyTracker.MAX_SAMPLES; i++) {
+            tracker.record(1000);
+        }
+
+        for (int i = 0; i < LatencyTracker.MAX_SAMPLES; i++) {
+            tracker.record(1);
+        }
+
+        assertEquals(tracker.percentile(99), 1);
+    }
+}
@@ -26,6 +26,7 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 import org.apache.cassandra.dht.Murmur3Partitioner;
+import org.apache.cassandra.dht.RandomPartitioner;
 import org.apache.cassandra.utils.Pair;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -33,10 +34,14 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import javax.annotation.Nullable;
+import java.math.BigInteger;
 import java.net.InetAddress;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import static org.mockito.Mockito.*;
@@ -338,4 +343,129 @@ public class RangeUtilsTest {
 
         assertTrue(elementsEquals);
     }
+
+    @Test
+    public void testMergeTokenRanges() {
+        Map<String, Iterable<Comparable>> tokens =
+                RangeUtils.fetchTokens("none", Pair.create(mockSession1, "localhost"), new Murmur3Partitioner());
+
+        List<DeepTokenRange> ranges = RangeUtils.mergeTokenRanges(TokenRingSnapshot.build(tokens, null, null),
+                new Murmur3Partitioner());
+
+        assertEquals(ranges.size(), localTokens1.size() + remoteTokens1.size() + 1);
+        assertEquals(ranges.get(0).getStartToken(), Long.MIN_VALUE);
+        assertEquals(ranges.get(ranges.size() - 1).getEndToken(), Long.MIN_VALUE);
+        assertEquals(ranges.get(ranges.size() - 1).getStartToken(), 9045050270477118230L);
+
+        for (int i = 1; i < ranges.size(); i++) {
+            assertEquals(ranges.get(i).getStartToken(), ranges.get(i - 1).getEndToken());
+        }
+    }
+
+    @Test
+    public void testMergeLargeTokenRing() {
+        Random random = new Random(42L);
+        Map<String, Iterable<Comparable>> tokens = new HashMap<>();
+
+        for (int host = 0; host < 400; host++) {
+            List<Comparable> hostTokens = new ArrayList<>();
+            for (int i = 0; i < 256; i++) {
+                hostTokens.add(random.nextLong());
+            }
+            tokens.put("host" + host, hostTokens);
+        }
+
+        List<DeepTokenRange> ranges = RangeUtils.mergeTokenRanges(TokenRingSnapshot.build(tokens, null, null),
+                new Murmur3Partitioner());
+
+        assertEquals(ranges.size(), 400 * 256 + 1);
+        assertEquals(ranges.get(0).getStartToken(), Long.MIN_VALUE);
+
+        for (int i = 1; i < ranges.size(); i++) {
+            assertTrue(ranges.get(i - 1).getStartToken().compareTo(ranges.get(i).getStartToken()) < 0);
+            assertEquals(ranges.get(i).getStartToken(), ranges.get(i - 1).getEndToken());
+        }
+    }
+
+    @Test
+    public void testGroupRanges() {
+        List<String> replicasA = Arrays.asList("a", "b");
+        List<String> replicasB = Arrays.asList("b", "c");
+        List<DeepTokenRange> ranges = new ArrayList<>();
+
+        for (long i = 0; i < 12; i++) {
+            ranges.add(new DeepTokenRange(i * 10, (i + 1) * 10, i % 3 == 0 ? replicasB : replicasA));
+        }
+
+        assertEquals(RangeUtils.groupRanges(ranges, -1).size(), 12);
+        assertEquals(RangeUtils.groupRanges(ranges, 20).size(), 12);
+
+        List<List<DeepTokenRange>> groups = RangeUtils.groupRanges(ranges, 4);
+        assertEquals(groups.size(), 4);
+
+        Set<DeepTokenRange> grouped = Sets.newHashSet();
+        for (List<DeepTokenRange> group : groups) {
+            for (DeepTokenRange range : group) {
+                assertEquals(range.getReplicas(), group.get(0).getReplicas());
+                grouped.add(range);
+            }
+        }
+        assertEquals(grouped.size(), 12);
+
+        groups = RangeUtils.groupRanges(ranges, 1);
+        assertEquals(groups.size(), 2);
+    }
+
+    @Test
+    public void testSplitRange() {
+        Murmur3Partitioner murmur3 = new Murmur3Partitioner();
+        List<String> replicas = Arrays.asList("host1");
+
+        List<DeepTokenRange> pieces = RangeUtils.splitRange(new DeepTokenRange(0L, 10L, replicas), murmur3, 3);
+        assertEquals(pieces, Arrays.asList(new DeepTokenRange(0L, 3L), new DeepTokenRange(3L, 6L),
+                new DeepTokenRange(6L, 10L)));
+        assertSame(pieces.get(1).getReplicas(), replicas);
+
+        /* ranges narrower than the factor are split into single-token ranges */
+        pieces = RangeUtils.splitRange(new DeepTokenRange(0L, 2L, replicas), murmur3, 5);
+        assertEquals(pieces, Arrays.asList(new DeepTokenRange(0L, 1L), new DeepTokenRange(1L, 2L)));
+
+        /* wrapping ranges */
+        pieces = RangeUtils.splitRange(new DeepTokenRange(Long.MAX_VALUE - 1, Long.MIN_VALUE + 2, replicas),
+                murmur3, 4);
+        assertEquals(pieces, Arrays.asList(new DeepTokenRange(Long.MAX_VALUE - 1, Long.MAX_VALUE),
+                new DeepTokenRange(Long.MAX_VALUE, Long.MIN_VALUE), new DeepTokenRange(Long.MIN_VALUE,
+                        Long.MIN_VALUE + 1), new DeepTokenRange(Long.MIN_VALUE + 1, Long.MIN_VALUE + 2)));
+
+        pieces = RangeUtils.splitRange(new DeepTokenRange(0L, Long.MIN_VALUE, replicas), murmur3, 3);
+        assertEquals(pieces.size(), 3);
+        assertEquals(pieces.get(2).getEndToken(), Long.MIN_VALUE);
+        assertEquals(pieces.get(1).getStartToken(), Long.MAX_VALUE / 3);
+
+        RandomPartitioner random = new RandomPartitioner();
+        BigInteger max = BigInteger.ONE.shiftLeft(127);
+
+        pieces = RangeUtils.splitRange(new DeepTokenRange(BigInteger.valueOf(-1), BigInteger.valueOf(-1), replicas),
+                random, 3);
+        assertEquals(pieces.size(), 3);
+        assertEquals(pieces.get(0).getStartToken(), BigInteger.valueOf(-1));
+        assertEquals(pieces.get(0).getEndToken(), max.divide(BigInteger.valueOf(3)));
+        assertEquals(pieces.get(1).getEndToken(), max.multiply(BigInteger.valueOf(2)).divide(BigInteger.valueOf(3)));
+        assertEquals(pieces.get(2).getEndToken(), BigInteger.valueOf(-1));
+    }
+
+    @Test
+    public void testApportionSplits() {
+        Murmur3Partitioner murmur3 = new Murmur3Partitioner();
+
+        List<DeepTokenRange> ranges = Arrays.asList(new DeepTokenRange(0L, 10L), new DeepTokenRange(10L, 70L),
+                new DeepTokenRange(70L, 100L), new DeepTokenRange(100L, 101L));
+
+        assertEquals(RangeUtils.apportionSplits(ranges.subList(0, 3), murmur3, 10), new int[]{1, 6, 3});
+        assertEquals(RangeUtils.apportionSplits(ranges.subList(0, 3), murmur3, 5), new int[]{1, 3, 1});
+
+        /* every range gets at least a split, taken from the range holding the most */
+        assertEquals(RangeUtils.apportionSplits(ranges, murmur3, 4), new int[]{1, 1, 1, 1});
+        assertEquals(RangeUtils.apportionSplits(ranges, murmur3, 6), new int[]{1, 2, 2, 1});
+    }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.stratio.deep.cql;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.*;
+
+@Test
+public class TokenRingSnapshotTest {
+
+    private Map<String, Iterable<Comparable>> ring() {
+        /* tokens 0..7, owned by h0..h3 in round robin */
+        Map<String, Iterable<Comparable>> tokens = new HashMap<>();
+        tokens.put("h0", Arrays.<Comparable>asList(0L, 40L));
+        tokens.put("h1", Arrays.<Comparable>asList(10L, 50L));
+        tokens.put("h2", Arrays.<Comparable>asList(20L, 60L));
+        tokens.put("h3", Arrays.<Comparable>asList(30L, 70L));
+        return tokens;
+    }
+
+    @Test
+    public void testSimpleStrategy() {
+        Map<String, String> replication = new HashMap<>();
+        replication.put("class", "org.apache.cassandra.locator.SimpleStrategy");
+        replication.put("replication_factor", "2");
+
+        TokenRingSnapshot ring = TokenRingSnapshot.build(ring(), replication, null);
+
+        assertEquals(ring.getTokens().size(), 8);
+        assertEquals(ring.getReplicas(10L), Arrays.asList("h1", "h2"));
+        assertEquals(ring.getReplicas(15L), Arrays.asList("h2", "h3"));
+        assertEquals(ring.getReplicas(70L), Arrays.asList("h3", "h0"));
+        assertEquals(ring.getReplicas(75L), Arrays.asList("h0", "h1"));
+        assertEquals(ring.getReplicas(Long.MIN_VALUE), Arrays.asList("h0", "h1"));
+
+        /* identical replica sets are interned */
+        assertEquals(ring.getReplicaSets().size(), 4);
+        assertSame(ring.getReplicas(10L), ring.getReplicas(50L));
+        assertEquals(ring.getReplicaSetId(20L), ring.getReplicaSetId(60L));
+        assertNotEquals(ring.getReplicaSetId(20L), ring.getReplicaSetId(30L));
+
+        replication.put("replication_factor", "10");
+        ring = TokenRingSnapshot.build(ring(), replication, null);
+        assertEquals(ring.getReplicas(0L).size(), 4);
+    }
+
+    @Test
+    public void testNetworkTopologyStrategy() {
+        Map<String, String> replication = new HashMap<>();
+        replication.put("class", "org.apache.cassandra.locator.NetworkTopologyStrategy");
+        replication.put("dc1", "1");
+        replication.put("dc2", "1");
+
+        Map<String, HostLocation> locations = new HashMap<>();
+        locations.put("h0", new HostLocation(null, "dc1", "r1"));
+        locations.put("h1", new HostLocation(null, "dc1", "r1"));
+        locations.put("h2", new HostLocation(null, "dc2", "r1"));
+        locations.put("h3", new HostLocation(null, "dc2", "r1"));
+
+        TokenRingSnapshot ring = TokenRingSnapshot.build(ring(), replication, locations);
+
+        assertEquals(ring.getReplicas(0L), Arrays.asList("h0", "h2"));
+        assertEquals(ring.getReplicas(10L), Arrays.asList("h1", "h2"));
+        assertEquals(ring.getReplicas(20L), Arrays.asList("h2", "h0"));
+        assertEquals(ring.getReplicas(30L), Arrays.asList("h3", "h0"));
+        assertEquals(ring.getLocations(), locations);
+
+        /* ranges only carry the location of their own replicas */
+        Map<String, HostLocation> replicaLocations = new HashMap<>();
+        replicaLocations.put("h0", locations.get("h0"));
+        replicaLocations.put("h2", locations.get("h2"));
+        assertEquals(ring.getReplicaLocations(0L), replicaLocations);
+        assertSame(ring.getReplicaLocations(0L), ring.getReplicaLocations(40L));
+    }
+
+    @Test
+    public void testNetworkTopologyStrategyRacks() {
+        Map<String, String> replication = new HashMap<>();
+        replication.put("class", "org.apache.cassandra.locator.NetworkTopologyStrategy");
+        replication.put("dc1", "2");
+
+        Map<String, HostLocation> locations = new HashMap<>();
+        locations.put("h0", new HostLocation(null, "dc1", "r1"));
+        locations.put("h1", new HostLocation(null, "dc1", "r1"));
+        locations.put("h2", new HostLocation(null, "dc1", "r2"));
+        locations.put("h3", new HostLocation(null, "dc1", "r2"));
+
+        TokenRingSnapshot ring = TokenRingSnapshot.build(ring(), replication, locations);
+
+        /* h1 is skipped, its rack already holding a replica */
+        assertEquals(ring.getReplicas(0L), Arrays.asList("h0", "h2"));
+        assertEquals(ring.getReplicas(10L), Arrays.asList("h1", "h2"));
+        assertEquals(ring.getReplicas(20L), Arrays.asList("h2", "h0"));
+        assertEquals(ring.getReplicas(30L), Arrays.asList("h3", "h0"));
+
+        /* skipped hosts are placed once every rack holds a replica */
+        replication.put("dc1", "3");
+        ring = TokenRingSnapshot.build(ring(), replication, locations);
+
+        assertEquals(ring.getReplicas(0L), Arrays.asList("h0", "h2", "h1"));
+        assertEquals(ring.getReplicas(10L), Arrays.asList("h1", "h2", "h3"));
+    }
+
+    @Test
+    public void testUnknownStrategy() {
+        TokenRingSnapshot ring = TokenRingSnapshot.build(ring(), null, null);
+
+        List<String> replicas = ring.getReplicas(25L);
+        assertEquals(replicas, Arrays.asList("h3"));
+        assertEquals(ring.getReplicaSets().size(), 4);
+    }
+}
@@ -16,12 +16,15 @@
 
 package com.stratio.deep.partition.impl;
 
+import com.stratio.deep.cql.HostLocation;
 import com.stratio.deep.exception.DeepInstantiationException;
 import org.testng.annotations.Test;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.testng.Assert.fail;
@@ -72,4 +75,40 @@ public class DeepPartitionLocationComparatorTest {
 
         assertArrayEquals(new String[]{hostname, "google.com", "edition.cnn.com"}, locations);
     }
+
+    public void testLocalityRanking() throws UnknownHostException {
+        Map<String, HostLocation> locations = new HashMap<>();
+        locations.put("node1", location("node1", 1, "dc1", "rack1"));
+        locations.put("node2", location("node2", 2, "dc1", "rack1"));
+        locations.put("node3", location("node3", 3, "dc1", "rack2"));
+        locations.put("node4", location("node4", 4, "dc2", "rack1"));
+        locations.put("node5", location("node5", 5, "dc2", "rack1"));
+
+        DeepPartitionLocationComparator comparator = new DeepPartitionLocationComparator("10.0.0.1", locations);
+
+        String[] replicas = new String[]{"node5", "node4", "node3", "node2", "node1"};
+        Arrays.sort(replicas, comparator);
+
+        assertArrayEquals(new String[]{"node1", "node2", "node3", "node5", "node4"}, replicas);
+
+        comparator = new DeepPartitionLocationComparator("10.0.0.4", locations);
+
+        replicas = new String[]{"node1", "node3", "node4", "node5"};
+        Arrays.sort(replicas, comparator);
+
+        assertArrayEquals(new String[]{"node4", "node5", "node1", "node3"}, replicas);
+
+        /* the local machine is not a cluster host */
+        comparator = new DeepPartitionLocationComparator("10.0.1.1", locations);
+
+        replicas = new String[]{"node3", "node1", "node4"};
+        Arrays.sort(replicas, comparator);
+
+        assertArrayEquals(new String[]{"node3", "node1", "node4"}, replicas);
+    }
+
+    private static HostLocation location(String name, int host, String datacenter, String rack)
+            throws UnknownHostException {
+        return new HostLocation(InetAddress.getByAddress(name, new byte[]{10, 0, 0, (byte) host}), datacenter, rack);
+    }
 }
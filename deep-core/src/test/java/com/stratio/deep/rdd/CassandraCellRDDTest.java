@@ -26,6 +26,9 @@ import com.stratio.deep.embedded.CassandraServer;
 import com.stratio.deep.entity.Cell;
 import com.stratio.deep.entity.Cells;
 import com.stratio.deep.exception.DeepIOException;
+import com.stratio.deep.exception.DeepNoSuchFieldException;
+import com.stratio.deep.filter.FilterOperator;
+import com.stratio.deep.functions.AbstractCellsFunction;
 import com.stratio.deep.functions.AbstractSerializableFunction;
 import com.stratio.deep.utils.Constants;
 import org.apache.log4j.Logger;
@@ -56,6 +59,23 @@ public class CassandraCellRDDTest extends CassandraRDDTest<Cells> {
         }
     }
 
+    private static class PasswordLengthFunction extends AbstractCellsFunction<Integer> {
+        private static final long serialVersionUID = -1203846276150367302L;
+
+        @Override
+        public String[] inputColumns() {
+            return new String[]{"password"};
+        }
+
+        @Override
+        public Integer apply(Cells e) {
+            assertEquals(e.size(), 4 + 1);
+            Object password = e.getCellByName("password").getCellValue();
+
+            return password != null ? ((String) password).length() : 0;
+        }
+    }
+
     @Override
     protected void checkComputedData(Cells[] entities) {
         boolean found = false;
@@ -170,6 +190,55 @@ public class CassandraCellRDDTest extends CassandraRDDTest<Cells> {
         }
     }
 
+    @Test
+    public void testProjectionFromFunction() {
+        logger.info("testProjectionFromFunction()");
+
+        CassandraCellRDD cellRDD = (CassandraCellRDD) getRDD();
+
+        Integer[] lengths = (Integer[]) cellRDD.mapProjected(new PasswordLengthFunction(),
+                ClassTag$.MODULE$.<Integer>apply(Integer.class)).collect();
+
+        assertEquals(lengths.length, cql3TestDataSize);
+        assertEquals(getReadConfig().getInputColumns().length, 0);
+
+        try {
+            cellRDD.project("not_existent_col");
+            fail();
+        } catch (DeepNoSuchFieldException e) {
+            // OK
+        }
+    }
+
+    @Test
+    public void testProjectionWithRowFilter() {
+        logger.info("testProjectionWithRowFilter()");
+
+        IDeepJobConfig<Cells> tmpConfig = DeepJobConfigFactory.create().host(Constants.DEFAULT_CASSANDRA_HOST)
+                .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                .keyspace(KEYSPACE_NAME)
+                .columnFamily(CQL3_COLUMN_FAMILY)
+                .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                .rowFilterByField("password", FilterOperator.EQ, "abc")
+                .initialize();
+
+        CassandraCellRDD cellRDD = (CassandraCellRDD) context.cassandraGenericRDD(tmpConfig);
+        Cells[] cells = (Cells[]) cellRDD.project("food").collect();
+
+        assertEquals(cells.length, 1);
+        assertEquals(cells[0].getCellByName("name").getCellValue(), "pepito_3");
+        assertEquals(cells[0].getCellByName("password").getCellValue(), "abc");
+        assertNotNull(cells[0].getCellByName("food"));
+        assertNull(cells[0].getCellByName("color"));
+        assertEquals(tmpConfig.getInputColumns().length, 0);
+
+        Integer[] lengths = (Integer[]) cellRDD.mapProjected(new PasswordLengthFunction(),
+                ClassTag$.MODULE$.<Integer>apply(Integer.class)).collect();
+
+        assertEquals(lengths.length, 1);
+        assertEquals(lengths[0], Integer.valueOf(3));
+    }
+
     @Override
     protected IDeepJobConfig<Cells> initWriteConfig() {
         IDeepJobConfig<Cells> writeConfig = DeepJobConfigFactory.createWriteConfig().host(Constants
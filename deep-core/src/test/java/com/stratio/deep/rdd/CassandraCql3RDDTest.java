@@ -22,19 +22,31 @@ import com.datastax.driver.core.Row;
 import com.datastax.driver.core.Session;
 import com.stratio.deep.config.DeepJobConfigFactory;
 import com.stratio.deep.config.IDeepJobConfig;
+import com.stratio.deep.cql.DeepTokenRange;
+import com.stratio.deep.cql.RangeUtils;
 import com.stratio.deep.embedded.CassandraServer;
 import com.stratio.deep.exception.DeepIOException;
 import com.stratio.deep.exception.DeepIndexNotFoundException;
 import com.stratio.deep.exception.DeepNoSuchFieldException;
+import com.stratio.deep.filter.FilterOperator;
 import com.stratio.deep.functions.AbstractSerializableFunction;
 import com.stratio.deep.testentity.Cql3TestEntity;
 import com.stratio.deep.utils.Constants;
+import org.apache.spark.Partition;
 import org.apache.spark.rdd.RDD;
 import org.testng.annotations.Test;
 import scala.Function1;
+import scala.Tuple2;
 import scala.reflect.ClassTag$;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import static org.testng.Assert.*;
 
@@ -55,6 +67,28 @@ public class CassandraCql3RDDTest extends CassandraRDDTest<Cql3TestEntity> {
         }
     }
 
+    private static class WideRowCountFunction extends AbstractSerializableFunction<WideRow<Cql3TestEntity>, Integer> {
+        private static final long serialVersionUID = -2372719357512418391L;
+
+        @Override
+        public Integer apply(WideRow<Cql3TestEntity> wideRow) {
+            Object name = wideRow.getPartitionKey().getCellByName("name").getCellValue();
+            Object gender = wideRow.getPartitionKey().getCellByName("gender").getCellValue();
+
+            int count = 0;
+            Iterator<Cql3TestEntity> rows = wideRow.getRows();
+            while (rows.hasNext()) {
+                Cql3TestEntity e = rows.next();
+                if (!e.getName().equals(name) || !e.getGender().equals(gender)) {
+                    return -1;
+                }
+                count++;
+            }
+
+            return count;
+        }
+    }
+
     @Override
     protected void checkComputedData(Cql3TestEntity[] entities) {
 
@@ -163,6 +197,529 @@ public class CassandraCql3RDDTest extends CassandraRDDTest<Cql3TestEntity> {
     }
 
 
+    @Test
+    public void testPaging() {
+        Boolean[] nativePaging = {Boolean.TRUE, Boolean.TRUE, Boolean.FALSE, Boolean.FALSE};
+        int[] pageSizes = {1, 3, 1, 3};
+        int[] prefetchDepths = {0, 2, 0, 2};
+
+        for (int i = 0; i < nativePaging.length; i++) {
+            IDeepJobConfig<Cql3TestEntity> config = DeepJobConfigFactory
+                    .create(Cql3TestEntity.class)
+                    .host(Constants.DEFAULT_CASSANDRA_HOST)
+                    .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                    .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                    .keyspace(KEYSPACE_NAME)
+                    .columnFamily(CQL3_COLUMN_FAMILY)
+                    .nativePaging(nativePaging[i])
+                    .pageSize(pageSizes[i])
+                    .prefetchDepth(prefetchDepths[i])
+                    .initialize();
+
+            Cql3TestEntity[] entities = (Cql3TestEntity[]) context.cassandraEntityRDD(config).collect();
+
+            assertEquals(entities.length, cql3TestDataSize);
+
+            Set<String> keys = new HashSet<>();
+            for (Cql3TestEntity e : entities) {
+                keys.add(e.getName() + ":" + e.getGender() + ":" + e.getAge() + ":" + e.getAnimal());
+            }
+
+            assertEquals(keys.size(), cql3TestDataSize);
+        }
+    }
+
+    @Test
+    public void testFieldFilters() {
+        IDeepJobConfig<Cql3TestEntity> config = DeepJobConfigFactory
+                .create(Cql3TestEntity.class)
+                .host(Constants.DEFAULT_CASSANDRA_HOST)
+                .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                .keyspace(KEYSPACE_NAME)
+                .columnFamily(CQL3_COLUMN_FAMILY)
+                .filterByField("age", FilterOperator.GT, 0)
+                .pageSize(3)
+                .initialize();
+
+        Cql3TestEntity[] entities = (Cql3TestEntity[]) context.cassandraEntityRDD(config).collect();
+
+        assertEquals(entities.length, 8);
+        for (Cql3TestEntity e : entities) {
+            assertTrue(e.getAge() > 0);
+        }
+
+        config = DeepJobConfigFactory
+                .create(Cql3TestEntity.class)
+                .host(Constants.DEFAULT_CASSANDRA_HOST)
+                .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                .keyspace(KEYSPACE_NAME)
+                .columnFamily(CQL3_COLUMN_FAMILY)
+                .filterByField("name", FilterOperator.EQ, "pepito_3")
+                .filterByFieldIn("gender", "male", "female")
+                .filterByField("age", FilterOperator.GTE, 0)
+                .initialize();
+
+        entities = (Cql3TestEntity[]) context.cassandraEntityRDD(config).collect();
+
+        assertEquals(entities.length, 3);
+        for (Cql3TestEntity e : entities) {
+            assertEquals(e.getName(), "pepito_3");
+            assertTrue(e.getAge() >= 0);
+        }
+
+        try {
+            DeepJobConfigFactory
+                    .create(Cql3TestEntity.class)
+                    .host(Constants.DEFAULT_CASSANDRA_HOST)
+                    .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                    .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                    .keyspace(KEYSPACE_NAME)
+                    .columnFamily(CQL3_COLUMN_FAMILY)
+                    .filterByField("animal", FilterOperator.LT, "zebra")
+                    .initialize();
+
+            fail();
+        } catch (IllegalArgumentException e) {
+            // OK, preceding clustering column age is not restricted
+        }
+
+        try {
+            DeepJobConfigFactory
+                    .create(Cql3TestEntity.class)
+                    .host(Constants.DEFAULT_CASSANDRA_HOST)
+                    .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                    .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                    .keyspace(KEYSPACE_NAME)
+                    .columnFamily(CQL3_COLUMN_FAMILY)
+                    .filterByField("age", FilterOperator.GT, 0)
+                    .nativePaging(Boolean.FALSE)
+                    .initialize();
+
+            fail();
+        } catch (IllegalArgumentException e) {
+            // OK, field filters require native paging
+            assertTrue(e.getMessage().contains("nativePaging"));
+        }
+
+        try {
+            DeepJobConfigFactory.create().filterByField("color", FilterOperator.IS_NOT_NULL, null);
+
+            fail();
+        } catch (IllegalArgumentException e) {
+            // OK, null checks are rejected when the filter is added
+        }
+    }
+
+    @Test
+    public void testRowFilters() {
+        IDeepJobConfig<Cql3TestEntity> config = DeepJobConfigFactory
+                .create(Cql3TestEntity.class)
+                .host(Constants.DEFAULT_CASSANDRA_HOST)
+                .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                .keyspace(KEYSPACE_NAME)
+                .columnFamily(CQL3_COLUMN_FAMILY)
+                .rowFilterByField("password", FilterOperator.EQ, "abc")
+                .initialize();
+
+        CassandraRDD<Cql3TestEntity> filtered = context.cassandraEntityRDD(config);
+        Cql3TestEntity[] entities = (Cql3TestEntity[]) filtered.collect();
+
+        assertEquals(entities.length, 1);
+        assertEquals(entities[0].getName(), "pepito_3");
+        assertEquals(entities[0].getAge(), Integer.valueOf(-2));
+        assertEquals(((Object[]) filtered.take(2)).length, 1);
+        assertEquals(filtered.cassandraCount(), 1);
+
+        config = DeepJobConfigFactory
+                .create(Cql3TestEntity.class)
+                .host(Constants.DEFAULT_CASSANDRA_HOST)
+                .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                .keyspace(KEYSPACE_NAME)
+                .columnFamily(CQL3_COLUMN_FAMILY)
+                .rowFilterByField("age", FilterOperator.GT, 0)
+                .rowFilterByField("name", FilterOperator.IN, "pepito_0", "pepito_1")
+                .rowFilterByField("color", FilterOperator.IS_NULL)
+                .initialize();
+
+        entities = (Cql3TestEntity[]) context.cassandraEntityRDD(config).collect();
+
+        assertEquals(entities.length, 4);
+        for (Cql3TestEntity e : entities) {
+            assertTrue(e.getAge() > 0);
+            assertTrue(e.getName().equals("pepito_0") || e.getName().equals("pepito_1"));
+        }
+
+        config = DeepJobConfigFactory
+                .create(Cql3TestEntity.class)
+                .host(Constants.DEFAULT_CASSANDRA_HOST)
+                .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                .keyspace(KEYSPACE_NAME)
+                .columnFamily(CQL3_COLUMN_FAMILY)
+                .rowFilterByField("color", FilterOperator.IS_NOT_NULL)
+                .initialize();
+
+        assertEquals(context.cassandraEntityRDD(config).cassandraCount(), 0);
+
+        try {
+            DeepJobConfigFactory.create()
+                    .host(Constants.DEFAULT_CASSANDRA_HOST)
+                    .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                    .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                    .keyspace(KEYSPACE_NAME)
+                    .columnFamily(CQL3_COLUMN_FAMILY)
+                    .inputColumns("food")
+                    .rowFilterByField("password", FilterOperator.EQ, "abc")
+                    .initialize();
+
+            fail();
+        } catch (IllegalArgumentException e) {
+            // OK, password is not read
+        }
+
+        try {
+            DeepJobConfigFactory
+                    .create(Cql3TestEntity.class)
+                    .host(Constants.DEFAULT_CASSANDRA_HOST)
+                    .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                    .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                    .keyspace(KEYSPACE_NAME)
+                    .columnFamily(CQL3_COLUMN_FAMILY)
+                    .filterByField("color", FilterOperator.IS_NULL, null)
+                    .initialize();
+
+            fail();
+        } catch (IllegalArgumentException e) {
+            // OK, null checks cannot be pushed down
+        }
+    }
+
+    @Test
+    public void testTake() {
+        Cql3TestEntity[] entities = (Cql3TestEntity[]) rdd.take(3);
+        assertEquals(entities.length, 3);
+
+        entities = (Cql3TestEntity[]) rdd.take(cql3TestDataSize + 1);
+        assertEquals(new HashSet<>(keys(entities)).size(), cql3TestDataSize);
+
+        assertNotNull(rdd.first());
+    }
+
+    @Test
+    public void testCassandraCount() {
+        assertEquals(rdd.cassandraCount(), cql3TestDataSize);
+        assertEquals(rdd.cassandraCount(true), cql3TestDataSize);
+
+        IDeepJobConfig<Cql3TestEntity> config = DeepJobConfigFactory
+                .create(Cql3TestEntity.class)
+                .host(Constants.DEFAULT_CASSANDRA_HOST)
+                .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                .keyspace(KEYSPACE_NAME)
+                .columnFamily(CQL3_COLUMN_FAMILY)
+                .filterByField("name", FilterOperator.EQ, "pepito_3")
+                .filterByFieldIn("gender", "male")
+                .initialize();
+
+        assertEquals(context.cassandraEntityRDD(config).cassandraCount(), 5);
+    }
+
+    @Test
+    public void testSampleRanges() {
+        CassandraSampledRDD<Cql3TestEntity> sample = context.cassandraSampledRDD(getReadConfig(), 0.5, 42L);
+        List<String> sampledKeys = keys((Cql3TestEntity[]) sample.collect());
+
+        assertTrue(sample.getSampledFraction() > 0 && sample.getSampledFraction() <= 1);
+        assertTrue(sample.dependencies().isEmpty());
+        assertTrue(sampledKeys.size() <= cql3TestDataSize);
+        assertEquals(keys((Cql3TestEntity[]) context.cassandraSampledRDD(getReadConfig(), 0.5, 42L).collect()),
+                sampledKeys);
+
+        sample = context.cassandraSampledRDD(getReadConfig(), 1, 42L);
+        assertEquals(((Object[]) sample.collect()).length, cql3TestDataSize);
+        assertEquals(sample.getSampledFraction(), 1.0);
+
+        sample = context.cassandraSampledRDD(getReadConfig(), 1, 42L, 1);
+        assertTrue(((Object[]) sample.collect()).length <= sample.partitions().length);
+
+        IDeepJobConfig<Cql3TestEntity> filteredConfig = DeepJobConfigFactory
+                .create(Cql3TestEntity.class)
+                .host(Constants.DEFAULT_CASSANDRA_HOST)
+                .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                .keyspace(KEYSPACE_NAME)
+                .columnFamily(CQL3_COLUMN_FAMILY)
+                .rowFilterByField("age", FilterOperator.GTE, 0)
+                .initialize();
+
+        /* 12 rows satisfy the filter, in the 4 partitions of the column family */
+        assertEquals(((Object[]) context.cassandraSampledRDD(filteredConfig, 1, 42L).collect()).length, 12);
+        assertTrue(((Object[]) context.cassandraSampledRDD(filteredConfig, 1, 42L, 1).collect()).length <= 4);
+    }
+
+    @Test
+    public void testAggregateByColumns() {
+        RDD<Tuple2<String, ColumnAggregate[]>> aggregates = rdd.aggregateByColumns("name", "age");
+
+        Tuple2<String, ColumnAggregate[]>[] groups = (Tuple2<String, ColumnAggregate[]>[]) aggregates.collect();
+
+        assertEquals(groups.length, 4);
+        for (Tuple2<String, ColumnAggregate[]> group : groups) {
+            assertTrue(group._1().startsWith("pepito_"));
+
+            ColumnAggregate age = group._2()[0];
+            assertEquals(age.getCount(), 5);
+            assertTrue(age.isIntegral());
+            assertEquals(age.getSum(), 0L);
+            assertEquals(age.getMin(), -2L);
+            assertEquals(age.getMax(), 2L);
+            assertEquals(age.getMean(), 0.0, 1e-9);
+            assertEquals(age.getVariance(), 2.0, 1e-9);
+        }
+
+        try {
+            rdd.aggregateByColumns("name", "food");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // OK
+        }
+    }
+
+    @Test
+    public void testSplitSize() {
+        List<String> expectedKeys = keys((Cql3TestEntity[]) rdd.collect());
+        Collections.sort(expectedKeys);
+
+        for (int splitSize : new int[]{1, 1000}) {
+            IDeepJobConfig<Cql3TestEntity> config = DeepJobConfigFactory
+                    .create(Cql3TestEntity.class)
+                    .host(Constants.DEFAULT_CASSANDRA_HOST)
+                    .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                    .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                    .keyspace(KEYSPACE_NAME)
+                    .columnFamily(CQL3_COLUMN_FAMILY)
+                    .splitSize(splitSize)
+                    .initialize();
+
+            CassandraRDD<Cql3TestEntity> sizedRdd = context.cassandraEntityRDD(config);
+            List<String> sizedKeys = keys((Cql3TestEntity[]) sizedRdd.collect());
+            Collections.sort(sizedKeys);
+
+            assertEquals(sizedKeys, expectedKeys);
+            assertTrue(sizedRdd.partitions().length > 0);
+        }
+
+        try {
+            DeepJobConfigFactory
+                    .create(Cql3TestEntity.class)
+                    .host(Constants.DEFAULT_CASSANDRA_HOST)
+                    .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                    .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                    .keyspace(KEYSPACE_NAME)
+                    .columnFamily(CQL3_COLUMN_FAMILY)
+                    .splitSize(100)
+                    .bisectFactor(4)
+                    .initialize();
+            fail();
+        } catch (IllegalArgumentException e) {
+            // OK
+        }
+    }
+
+    @Test
+    public void testPartitionCount() {
+        List<String> expectedKeys = keys((Cql3TestEntity[]) rdd.collect());
+        Collections.sort(expectedKeys);
+
+        IDeepJobConfig<Cql3TestEntity> config = DeepJobConfigFactory
+                .create(Cql3TestEntity.class)
+                .host(Constants.DEFAULT_CASSANDRA_HOST)
+                .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                .keyspace(KEYSPACE_NAME)
+                .columnFamily(CQL3_COLUMN_FAMILY)
+                .bisectFactor(testBisectFactor)
+                .partitionCount(2)
+                .pageSize(3)
+                .initialize();
+
+        CassandraRDD<Cql3TestEntity> groupedRdd = context.cassandraEntityRDD(config);
+        assertEquals(groupedRdd.partitions().length, 2);
+
+        List<String> groupedKeys = keys((Cql3TestEntity[]) groupedRdd.collect());
+        Collections.sort(groupedKeys);
+
+        assertEquals(groupedKeys, expectedKeys);
+        assertEquals(groupedRdd.cassandraCount(), cql3TestDataSize);
+        assertEquals(((Object[]) groupedRdd.take(5)).length, 5);
+    }
+
+    @Test
+    public void testCacheSplits() throws Exception {
+        File directory = File.createTempFile("splits", "");
+        assertTrue(directory.delete());
+
+        IDeepJobConfig<Cql3TestEntity> config = DeepJobConfigFactory
+                .create(Cql3TestEntity.class)
+                .host(Constants.DEFAULT_CASSANDRA_HOST)
+                .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                .keyspace(KEYSPACE_NAME)
+                .columnFamily(CQL3_COLUMN_FAMILY)
+                .bisectFactor(testBisectFactor)
+                .cacheSplits(true)
+                .splitCacheDirectory(directory.getPath())
+                .initialize();
+
+        List<DeepTokenRange> splits = RangeUtils.getSplits(config);
+
+        assertEquals(splits, RangeUtils.getSplits(getReadConfig()));
+        assertSame(RangeUtils.getSplits(config), splits);
+
+        File[] files = directory.listFiles();
+        assertNotNull(files);
+        assertEquals(files.length, 1);
+
+        List<String> expectedKeys = keys((Cql3TestEntity[]) rdd.collect());
+        Collections.sort(expectedKeys);
+
+        List<String> cachedKeys = keys((Cql3TestEntity[]) context.cassandraEntityRDD(config).collect());
+        Collections.sort(cachedKeys);
+
+        assertEquals(cachedKeys, expectedKeys);
+
+        for (File file : files) {
+            assertTrue(file.delete());
+        }
+        assertTrue(directory.delete());
+    }
+
+    @Test
+    public void testDatacenter() {
+        IDeepJobConfig<Cql3TestEntity> config = DeepJobConfigFactory
+                .create(Cql3TestEntity.class)
+                .host(Constants.DEFAULT_CASSANDRA_HOST)
+                .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                .keyspace(KEYSPACE_NAME)
+                .columnFamily(CQL3_COLUMN_FAMILY)
+                .bisectFactor(testBisectFactor)
+                .datacenter("datacenter1")
+                .initialize();
+
+        CassandraRDD<Cql3TestEntity> dcRdd = context.cassandraEntityRDD(config);
+
+        for (Partition partition : dcRdd.partitions()) {
+            assertFalse(dcRdd.getPreferredLocations(partition).isEmpty());
+        }
+
+        List<String> expectedKeys = keys((Cql3TestEntity[]) rdd.collect());
+        Collections.sort(expectedKeys);
+
+        List<String> dcKeys = keys((Cql3TestEntity[]) dcRdd.collect());
+        Collections.sort(dcKeys);
+
+        assertEquals(dcKeys, expectedKeys);
+
+        try {
+            DeepJobConfigFactory
+                    .create(Cql3TestEntity.class)
+                    .host(Constants.DEFAULT_CASSANDRA_HOST)
+                    .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                    .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                    .keyspace(KEYSPACE_NAME)
+                    .columnFamily(CQL3_COLUMN_FAMILY)
+                    .datacenter("not_existent_datacenter")
+                    .initialize();
+            fail();
+        } catch (IllegalArgumentException e) {
+            // OK
+        }
+    }
+
+    @Test
+    public void testScanConcurrency() {
+        List<String> sequentialKeys = keys((Cql3TestEntity[]) rdd.collect());
+
+        for (Boolean orderedScan : new Boolean[]{Boolean.TRUE, Boolean.FALSE}) {
+            IDeepJobConfig<Cql3TestEntity> config = DeepJobConfigFactory
+                    .create(Cql3TestEntity.class)
+                    .host(Constants.DEFAULT_CASSANDRA_HOST)
+                    .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                    .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                    .keyspace(KEYSPACE_NAME)
+                    .columnFamily(CQL3_COLUMN_FAMILY)
+                    .bisectFactor(testBisectFactor)
+                    .scanConcurrency(4)
+                    .orderedScan(orderedScan)
+                    .pageSize(2)
+                    .initialize();
+
+            List<String> concurrentKeys = keys((Cql3TestEntity[]) context.cassandraEntityRDD(config).collect());
+
+            if (orderedScan) {
+                assertEquals(concurrentKeys, sequentialKeys);
+            } else {
+                assertEquals(new HashSet<>(concurrentKeys), new HashSet<>(sequentialKeys));
+                assertEquals(concurrentKeys.size(), sequentialKeys.size());
+            }
+        }
+    }
+
+    @Test
+    public void testEntityProjection() {
+        Set<String> projection = new HashSet<>(Arrays.asList(getReadConfig().getInputColumns()));
+
+        assertEquals(projection, new HashSet<>(Arrays.asList("name", "password", "color", "gender", "food",
+                "animal", "lucene", "age")));
+    }
+
+    @Test
+    public void testWidePartitions() {
+        Set<String> partitionKeys = new HashSet<>();
+        for (Cql3TestEntity e : (Cql3TestEntity[]) rdd.collect()) {
+            partitionKeys.add(e.getName() + ":" + e.getGender());
+        }
+
+        IDeepJobConfig<Cql3TestEntity> config = DeepJobConfigFactory
+                .create(Cql3TestEntity.class)
+                .host(Constants.DEFAULT_CASSANDRA_HOST)
+                .rpcPort(CassandraServer.CASSANDRA_THRIFT_PORT)
+                .cqlPort(CassandraServer.CASSANDRA_CQL_PORT)
+                .keyspace(KEYSPACE_NAME)
+                .columnFamily(CQL3_COLUMN_FAMILY)
+                .pageSize(1)
+                .initialize();
+
+        RDD<Integer> counts = context.cassandraEntityRDD(config).widePartitions()
+                .map(new WideRowCountFunction(), ClassTag$.MODULE$.<Integer>apply(Integer.class));
+
+        Integer[] partitionSizes = (Integer[]) counts.collect();
+
+        assertEquals(partitionSizes.length, partitionKeys.size());
+
+        int total = 0;
+        for (Integer size : partitionSizes) {
+            assertTrue(size > 0);
+            total += size;
+        }
+
+        assertEquals(total, cql3TestDataSize);
+    }
+
+    private static List<String> keys(Cql3TestEntity[] entities) {
+        List<String> keys = new ArrayList<>();
+        for (Cql3TestEntity e : entities) {
+            keys.add(e.getName() + ":" + e.getGender() + ":" + e.getAge() + ":" + e.getAnimal());
+        }
+
+        return keys;
+    }
+
     protected void checkOutputTestData() {
         Cluster cluster = Cluster.builder().withPort(CassandraServer.CASSANDRA_CQL_PORT)
                 .addContactPoint(Constants.DEFAULT_CASSANDRA_HOST).build();
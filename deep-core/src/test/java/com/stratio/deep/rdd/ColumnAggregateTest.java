@@ -0,0 +1,81 @@
+/*
+ * Copyright 2014, Stratio.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.deep.rdd;
+
+import org.testng.annotations.Test;
+
+import java.math.BigInteger;
+
+import static org.testng.Assert.*;
+
+@Test
+public class ColumnAggregateTest {
+
+    @Test
+    public void testExactIntegralAggregates() {
+        long large = (1L << 53) + 1;
+
+        ColumnAggregate aggregate = new ColumnAggregate(true);
+        aggregate.add(large);
+        aggregate.add(1L);
+
+        /* not representable as a double */
+        assertEquals(aggregate.getSum(), large + 1);
+        assertEquals(aggregate.getMin(), 1L);
+        assertEquals(aggregate.getMax(), large);
+
+        ColumnAggregate overflowing = new ColumnAggregate(true);
+        overflowing.add(Long.MAX_VALUE);
+        overflowing.add(Long.MAX_VALUE);
+        assertEquals(overflowing.getSum(), BigInteger.valueOf(Long.MAX_VALUE).shiftLeft(1));
+
+        overflowing.add(Long.MIN_VALUE);
+        overflowing.add(Long.MIN_VALUE);
+        assertEquals(overflowing.getSum(), -2L);
+
+        ColumnAggregate empty = new ColumnAggregate(true);
+        assertNull(empty.getMin());
+        assertEquals(empty.getSum(), 0L);
+        assertTrue(Double.isNaN(empty.getVariance()));
+    }
+
+    @Test
+    public void testMergedVariance() {
+        double offset = 1e9;
+        double[] values = {4, 7, 13, 16, 10, 1};
+
+        ColumnAggregate all = new ColumnAggregate(false);
+        ColumnAggregate left = new ColumnAggregate(false);
+        ColumnAggregate right = new ColumnAggregate(false);
+
+        for (int i = 0; i < values.length; i++) {
+            all.add(offset + values[i]);
+            (i < 2 ? left : right).add(offset + values[i]);
+        }
+
+        /* E[x^2] - mean^2 would cancel out at this offset */
+        assertEquals(all.getVariance(), 26.25, 1e-6);
+        assertEquals(all.getMean(), offset + 8.5, 1e-6);
+
+        left.merge(right);
+        assertEquals(left.getCount(), 6);
+        assertEquals(left.getVariance(), 26.25, 1e-6);
+        assertEquals(left.getMin(), offset + 1);
+        assertEquals(left.getMax(), offset + 16);
+        assertEquals(left.merge(new ColumnAggregate(false)).getVariance(), 26.25, 1e-6);
+    }
+}